@@ -0,0 +1,219 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplementprocessor;
+
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.WildcardTypeName;
+import com.steve.mvp.autoimplement.AutoImplFactory;
+import com.steve.mvp.autoimplement.AutoImplRegistry;
+import com.steve.mvp.autoimplement.internal.AutoImplement;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Writes the registry of all the implementations generated in a module.
+ * Kept apart from AutoImplementProcessor : the registry aggregates every @AutoImplement class
+ * while each implementation only depends on its own class, so that one stays isolating
+ * for incremental builds.
+ * Created by Steve Tchatchouang
+ */
+public class AutoImplRegistryProcessor extends AbstractProcessor {
+    private static final String REGISTRY = "AutoImplementRegistry";
+
+    /**
+     * Fully qualified name of the generated registry, it must be unique per module.
+     * Default is AutoImplementRegistry in the package of the first generated implementation
+     */
+    static final String OPTION_REGISTRY = "autoimplement.registry";
+
+    private Messager messager;
+    private Filer    filer;
+    private Elements elementsUtils;
+
+    //@AutoImplement classes of all rounds
+    private final List<TypeElement> registryOrigins = new ArrayList<>();
+    private       boolean           registryWritten;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnvironment) {
+        super.init(processingEnvironment);
+        this.messager = processingEnvironment.getMessager();
+        this.filer = processingEnvironment.getFiler();
+        this.elementsUtils = processingEnvironment.getElementUtils();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> set, RoundEnvironment roundEnvironment) {
+        Set<? extends Element> elements = roundEnvironment.getElementsAnnotatedWith(AutoImplement.class);
+        for (Element element : elements) {
+            //AutoImplementProcessor reports the invalid ones
+            if (element.getKind() == ElementKind.CLASS && element.getModifiers().contains(Modifier.ABSTRACT)) {
+                registryOrigins.add((TypeElement) element);
+            }
+        }
+        //implementations are all known once a round brings no new @AutoImplement class
+        if (elements.isEmpty() && !registryOrigins.isEmpty() && !registryWritten) {
+            writeRegistry();
+        } else if (!elements.isEmpty() && registryWritten) {
+            messager.printMessage(
+                    Diagnostic.Kind.WARNING,
+                    "registry already generated, classes of this round will be built with reflection"
+            );
+        }
+        //do not claim @AutoImplement, AutoImplementProcessor handles it
+        return false;
+    }
+
+    /**
+     * Write the module registry listing the factories of all generated implementations,
+     * and declare it as a service for AutoImplUtils
+     */
+    private void writeRegistry() {
+        registryWritten = true;
+        List<ClassName> impls = new ArrayList<>();
+        for (TypeElement element : registryOrigins) {
+            impls.add(AutoImplementProcessor.getImplName(element, elementsUtils));
+        }
+        Collections.sort(impls);
+
+        ClassName registry = getRegistryName(impls.get(0));
+        TypeName factoryType = ParameterizedTypeName.get(
+                ClassName.get(AutoImplFactory.class),
+                WildcardTypeName.subtypeOf(Object.class)
+        );
+        CodeBlock.Builder factories = CodeBlock.builder();
+        for (int i = 0; i < impls.size(); i++) {
+            factories.add(i == 0 ? "\nnew $T()" : ",\nnew $T()", impls.get(i).nestedClass(AutoImplementProcessor.FACTORY));
+        }
+        MethodSpec factoriesMethod = MethodSpec.methodBuilder("factories")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .returns(ArrayTypeName.of(factoryType))
+                .addStatement("return new $T[] {$>$>$L$<$<\n}", factoryType, factories.build())
+                .build();
+
+        //warm-up order, by decreasing priority then name
+        List<TypeElement> byPriority = new ArrayList<>(registryOrigins);
+        Collections.sort(byPriority, (first, second) -> {
+            int compare = Integer.compare(getWarmUpPriority(second), getWarmUpPriority(first));
+            return compare != 0 ? compare : AutoImplementProcessor.getImplName(first, elementsUtils)
+                    .compareTo(AutoImplementProcessor.getImplName(second, elementsUtils));
+        });
+        CodeBlock.Builder names = CodeBlock.builder();
+        CodeBlock.Builder priorities = CodeBlock.builder();
+        for (int i = 0; i < byPriority.size(); i++) {
+            TypeElement element = byPriority.get(i);
+            names.add(i == 0 ? "\n$S" : ",\n$S", AutoImplementProcessor.getImplName(element, elementsUtils).reflectionName());
+            priorities.add(i == 0 ? "$L" : ", $L", getWarmUpPriority(element));
+        }
+        MethodSpec implementationsMethod = MethodSpec.methodBuilder("implementations")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .returns(String[].class)
+                .addStatement("return new $T[] {$>$>$L$<$<\n}", String.class, names.build())
+                .build();
+        MethodSpec prioritiesMethod = MethodSpec.methodBuilder("priorities")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .returns(int[].class)
+                .addStatement("return new int[] {$L}", priorities.build())
+                .build();
+
+        TypeSpec.Builder typeBuilder = TypeSpec.classBuilder(registry)
+                .addJavadoc("Generated registry of this module implementations\n")
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addSuperinterface(AutoImplRegistry.class)
+                .addMethod(factoriesMethod)
+                .addMethod(implementationsMethod)
+                .addMethod(prioritiesMethod);
+        for (Element origin : registryOrigins) {
+            typeBuilder.addOriginatingElement(origin);
+        }
+
+        Element[] origins = registryOrigins.toArray(new Element[registryOrigins.size()]);
+        try {
+            JavaFile.builder(registry.packageName(), typeBuilder.build()).build().writeTo(filer);
+            FileObject service = filer.createResource(
+                    StandardLocation.CLASS_OUTPUT,
+                    "",
+                    "META-INF/services/" + AutoImplRegistry.class.getName(),
+                    origins
+            );
+            try (Writer writer = service.openWriter()) {
+                writer.write(registry.reflectionName() + "\n");
+            }
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR, e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    private static int getWarmUpPriority(TypeElement element) {
+        return element.getAnnotation(AutoImplement.class).warmUpPriority();
+    }
+
+    private ClassName getRegistryName(ClassName firstImpl) {
+        String name = processingEnv.getOptions().get(OPTION_REGISTRY);
+        if (name == null || name.isEmpty()) {
+            return ClassName.get(firstImpl.packageName(), REGISTRY);
+        }
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? ClassName.get("", name) : ClassName.get(name.substring(0, dot), name.substring(dot + 1));
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        return Collections.singleton(OPTION_REGISTRY);
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(AutoImplement.class.getCanonicalName());
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+}
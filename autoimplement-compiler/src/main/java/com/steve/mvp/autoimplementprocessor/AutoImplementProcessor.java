@@ -16,27 +16,66 @@
 
 package com.steve.mvp.autoimplementprocessor;
 
+import com.squareup.javapoet.AnnotationSpec;
 import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.JavaFile;
 import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.TypeVariableName;
+import com.steve.mvp.autoimplement.AutoImplException;
+import com.steve.mvp.autoimplement.AutoImplExecutors;
+import com.steve.mvp.autoimplement.AutoImplFactory;
+import com.steve.mvp.autoimplement.CallKey;
+import com.steve.mvp.autoimplement.batch.CallBatcher;
+import com.steve.mvp.autoimplement.cache.AutoImplCaches;
+import com.steve.mvp.autoimplement.cache.CacheStats;
+import com.steve.mvp.autoimplement.cache.MemoCache;
+import com.steve.mvp.autoimplement.composite.CompositeCalls;
+import com.steve.mvp.autoimplement.dispatch.CoalescingSlot;
+import com.steve.mvp.autoimplement.flight.InFlightCalls;
+import com.steve.mvp.autoimplement.limit.AutoImplLimits;
+import com.steve.mvp.autoimplement.limit.CallLimiter;
+import com.steve.mvp.autoimplement.internal.Async;
 import com.steve.mvp.autoimplement.internal.AutoImplement;
+import com.steve.mvp.autoimplement.internal.Batch;
+import com.steve.mvp.autoimplement.internal.Bulkhead;
+import com.steve.mvp.autoimplement.internal.Coalesce;
+import com.steve.mvp.autoimplement.internal.Composite;
+import com.steve.mvp.autoimplement.internal.Concurrency;
+import com.steve.mvp.autoimplement.internal.Confined;
 import com.steve.mvp.autoimplement.internal.ImplementationOf;
+import com.steve.mvp.autoimplement.internal.Memoize;
+import com.steve.mvp.autoimplement.internal.ReadOnly;
+import com.steve.mvp.autoimplement.internal.SingleFlight;
+import com.steve.mvp.autoimplement.metrics.AutoImplMetrics;
+import com.steve.mvp.autoimplement.metrics.MethodMetrics;
+import com.steve.mvp.autoimplement.pool.ObjectPool;
 import com.steve.mvp.autoimplementprocessor.model.BindingImpl;
 
 import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.StampedLock;
 
 import javax.annotation.processing.AbstractProcessor;
 import javax.annotation.processing.Filer;
@@ -49,8 +88,12 @@ import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.TypeParameterElement;
 import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
 import javax.lang.model.type.MirroredTypeException;
+import javax.lang.model.type.PrimitiveType;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.ElementFilter;
@@ -62,13 +105,27 @@ import javax.tools.Diagnostic;
  * Created by Steve Tchatchouang
  */
 public class AutoImplementProcessor extends AbstractProcessor {
-    private static final String SUFFIX = "_Impl";
+    private static final String SUFFIX  = "_Impl";
+    static final         String FACTORY = "Factory";
+    private static final String BATCHER = "batch$";
+    private static final String CACHE   = "cache$";
+    private static final String LOCAL   = "local$";
+
+    /**
+     * Print processing time and interface resolution stats of each round
+     */
+    static final String OPTION_STATS = "autoimplement.stats";
 
     private Messager messager;
     private Filer    filer;
     private Types    typesUtils;
     private Elements elementsUtils;
 
+    private InterfaceResolver interfaceResolver;
+    private boolean           printStats;
+    private int               round;
+    private int               savedMethods;
+
     @Override
     public synchronized void init(ProcessingEnvironment processingEnvironment) {
         super.init(processingEnvironment);
@@ -76,10 +133,17 @@ public class AutoImplementProcessor extends AbstractProcessor {
         this.filer = processingEnvironment.getFiler();
         this.typesUtils = processingEnvironment.getTypeUtils();
         this.elementsUtils = processingEnvironment.getElementUtils();
+        this.interfaceResolver = new InterfaceResolver(typesUtils);
+        this.printStats = Boolean.parseBoolean(processingEnvironment.getOptions().get(OPTION_STATS));
     }
 
     @Override
     public boolean process(Set<? extends TypeElement> set, RoundEnvironment roundEnvironment) {
+        long start = System.nanoTime();
+        round++;
+        //elements of previous rounds are not valid anymore
+        interfaceResolver.clear();
+        savedMethods = 0;
         Set<? extends Element> elements = roundEnvironment.getElementsAnnotatedWith(AutoImplement.class);
         for (Element element : elements) {
             if (element.getKind() != ElementKind.CLASS || !element.getModifiers().contains(Modifier.ABSTRACT)) {
@@ -88,14 +152,29 @@ public class AutoImplementProcessor extends AbstractProcessor {
             }
             processElement((TypeElement) element);
         }
-        return true;
+        if (printStats && !elements.isEmpty()) {
+            messager.printMessage(Diagnostic.Kind.NOTE, String.format(
+                    "AutoImplement round %d: %d classes in %d ms, %d interfaces resolved, %d method lists built, %d cache hits, %d methods saved",
+                    round,
+                    elements.size(),
+                    (System.nanoTime() - start) / 1000000,
+                    interfaceResolver.getResolved(),
+                    interfaceResolver.getMisses(),
+                    interfaceResolver.getHits(),
+                    savedMethods
+            ));
+        }
+        //not claimed, AutoImplRegistryProcessor needs @AutoImplement whatever the processor order
+        return false;
     }
 
     private void processElement(TypeElement element) {
+        AutoImplement autoImplement = element.getAnnotation(AutoImplement.class);
         //Get all member and interfaces
         List<BindingImpl> implMap = getImplMap(element);
-        //Get all method associated with #implementationOf interface
-        Map<BindingImpl, List<ExecutableElement>> executableMap = getBindingListMap(implMap);
+        groupComposites(implMap);
+        //Get all method associated with #implementationOf interface, only the ones still abstract
+        Map<BindingImpl, List<ExecutableElement>> executableMap = resolveMethods(element, getBindingListMap(implMap));
         //Get all constructors
         List<ExecutableElement> constructors = ElementFilter.constructorsIn(element.getEnclosedElements());
         //check for private constructor
@@ -108,30 +187,113 @@ public class AutoImplementProcessor extends AbstractProcessor {
             }
         }
 
-        //Generating methods
+        //Class name (and package)
+        ClassName impl = getImplName(element, elementsUtils);
+
+        //Generating methods and the fields they use
         List<MethodSpec> methodSpecList = new LinkedList<>();
+        List<FieldSpec> fieldSpecList = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        //xxxAsync variants are not generated over existing or generated methods
+        Set<String> signatures = getMemberSignatures(element);
+        executableMap.forEach((binding, executableElements) -> {
+            for (ExecutableElement executableElement : executableElements) {
+                signatures.add(getSignature(element, binding.getField(), executableElement));
+            }
+        });
 
         executableMap.forEach((binding, executableElements) -> {
+            FieldSpec updater = null;
+            if (binding.getImplementationOf().swappable() && binding.getConcurrency() != Concurrency.THREAD_LOCAL) {
+                updater = buildSwapUpdater(element, binding);
+                fieldSpecList.add(updater);
+            }
+            if (binding.isLazy() && checkFactory(element, binding)) {
+                FieldSpec lock = FieldSpec.builder(Object.class, getLazyLockName(binding), Modifier.PRIVATE, Modifier.FINAL)
+                        .initializer("new $T()", Object.class)
+                        .build();
+                fieldSpecList.add(lock);
+                methodSpecList.add(buildLazyDelegate(binding, lock, updater));
+            }
+            Confined confined = binding.getField().getAnnotation(Confined.class);
+            if (confined != null) {
+                //reports a missing executor method once per delegate
+                getExecutor(element, binding.getField(), confined.value());
+            }
+            Bulkhead bulkhead = binding.getField().getAnnotation(Bulkhead.class);
+            if (bulkhead != null) {
+                fieldSpecList.add(buildLimiter(impl, getLimiterName(binding), binding.getField().getSimpleName().toString(), bulkhead));
+            }
+            if (binding.getConcurrency() != Concurrency.NONE) {
+                FieldSpec guard = buildGuardField(element, binding);
+                if (guard != null) {
+                    fieldSpecList.add(guard);
+                }
+            }
+            Async async = binding.getField().getAnnotation(Async.class);
+            CodeBlock executor = async == null ? null : getExecutor(element, binding.getField(), async.executor());
+            int bindingFields = fieldSpecList.size();
             for (ExecutableElement executableElement : executableElements) {
-                methodSpecList.add(buildMethod(binding.getField(), executableElement));
+                MethodSpec method = buildMethod(element, impl, binding, executableElement, autoImplement, fieldSpecList, names);
+                methodSpecList.add(method);
+                if (executor == null) {
+                    continue;
+                }
+                String asyncSignature = getSignature(element, binding.getField(), executableElement).replaceFirst("\\(", "Async(");
+                if (signatures.add(asyncSignature)) {
+                    methodSpecList.add(buildAsyncMethod(method, executor, autoImplement.finalImpl()));
+                } else {
+                    messager.printMessage(Diagnostic.Kind.WARNING,
+                            asyncSignature + " already exists, not generated", binding.getField());
+                }
+            }
+            if (updater != null) {
+                //memoized results of the swapped out delegate are dropped
+                List<String> caches = new ArrayList<>();
+                for (FieldSpec field : fieldSpecList.subList(bindingFields, fieldSpecList.size())) {
+                    if (field.name.startsWith(CACHE)) {
+                        caches.add(field.name);
+                    }
+                }
+                methodSpecList.add(buildSwapMethod(binding, updater, caches, autoImplement.finalImpl()));
             }
         });
+        List<String> batchers = new ArrayList<>();
+        for (FieldSpec field : fieldSpecList) {
+            if (field.name.startsWith(BATCHER)) {
+                batchers.add(field.name);
+            }
+        }
+        if (!batchers.isEmpty()) {
+            methodSpecList.add(buildBatchersMethod("flushBatches", "flush", batchers, autoImplement.finalImpl()));
+            methodSpecList.add(buildBatchersMethod("closeBatches", "close", batchers, autoImplement.finalImpl()));
+        }
 
-        //Class name (and package)
-        ClassName impl = ClassName.get(
-                elementsUtils.getPackageOf(element).getQualifiedName().toString(),
-                element.getSimpleName() + SUFFIX
-        );
+        //Same type variables as element
+        List<TypeVariableName> typeVariables = new ArrayList<>();
+        for (TypeParameterElement typeParameter : element.getTypeParameters()) {
+            typeVariables.add(TypeVariableName.get(typeParameter));
+        }
+        if (autoImplement.pooled()) {
+            addPool(element, impl, typeVariables, constructors, autoImplement, fieldSpecList, methodSpecList);
+        }
 
         //Generate type (class)
-        TypeSpec typeSpec = TypeSpec.classBuilder(impl)
+        TypeSpec.Builder typeBuilder = TypeSpec.classBuilder(impl)
+                .addTypeVariables(typeVariables)
+                .addFields(fieldSpecList)
                 .addMethods(methodSpecList)
                 .addJavadoc("Generated implementation of "+element.getSimpleName()+"\n")
                 .addJavadoc("@author : Steve Tchatchouang\nEmail : steve.tchatchouang@gmail.com\n")
                 .addMethods(buildConstructors(constructors))
+                .addType(buildFactory(element, impl, constructors))
                 .superclass(TypeName.get(element.asType()))
                 .addModifiers(Modifier.PUBLIC)
-                .build();
+                .addOriginatingElement(element);
+        if (autoImplement.finalImpl()) {
+            typeBuilder.addModifiers(Modifier.FINAL);
+        }
+        TypeSpec typeSpec = typeBuilder.build();
 
         //Generate file
         JavaFile file = JavaFile.builder(impl.packageName(), typeSpec).build();
@@ -143,6 +305,266 @@ public class AutoImplementProcessor extends AbstractProcessor {
         }
     }
 
+    /**
+     * Pool of released instances with reset(), static acquire(...) per reusable constructor and release(instance)
+     */
+    private void addPool(TypeElement element, ClassName impl, List<TypeVariableName> typeVariables,
+                         List<ExecutableElement> constructors, AutoImplement autoImplement,
+                         List<FieldSpec> fields, List<MethodSpec> methods) {
+        TypeName implType = typeVariables.isEmpty()
+                ? impl
+                : ParameterizedTypeName.get(impl, typeVariables.toArray(new TypeName[0]));
+        fields.add(FieldSpec.builder(ParameterizedTypeName.get(ClassName.get(ObjectPool.class), impl), "POOL",
+                Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("new $T<>($L)", ObjectPool.class, autoImplement.poolSize())
+                .build());
+        for (MethodSpec method : methods) {
+            if (method.name.equals("reset") && method.parameters.isEmpty()) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "pooled classes cannot delegate reset()", element);
+                return;
+            }
+        }
+        //thread local delegates are replaced on reset
+        for (int i = 0; i < fields.size(); i++) {
+            FieldSpec field = fields.get(i);
+            if (field.name.startsWith(LOCAL)) {
+                fields.set(i, FieldSpec.builder(field.type, field.name, Modifier.PRIVATE)
+                        .initializer(field.initializer)
+                        .build());
+            }
+        }
+        methods.add(buildReset(element, autoImplement, fields));
+
+        boolean acquirable = false;
+        for (ExecutableElement cons : constructors) {
+            List<? extends VariableElement> parameters = cons.getParameters();
+            ExecutableElement onAcquire = getOnAcquire(element, parameters);
+            if (!parameters.isEmpty() && onAcquire == null) {
+                messager.printMessage(Diagnostic.Kind.WARNING, "no acquire method for this constructor, add onAcquire with the same parameters", cons);
+                continue;
+            }
+            acquirable = true;
+            MethodSpec.Builder acquire = MethodSpec.methodBuilder("acquire")
+                    .addJavadoc("@return a released instance set up with onAcquire, else a new one\n")
+                    .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                    .addTypeVariables(typeVariables)
+                    .returns(implType);
+            StringBuilder arguments = new StringBuilder();
+            for (VariableElement parameter : parameters) {
+                acquire.addParameter(ParameterSpec.get(parameter));
+                arguments.append(arguments.length() == 0 ? "" : ", ").append(parameter.getSimpleName());
+            }
+            if (typeVariables.isEmpty()) {
+                acquire.addStatement("$T instance = POOL.poll()", implType);
+            } else {
+                acquire.addAnnotation(AnnotationSpec.builder(SuppressWarnings.class)
+                        .addMember("value", "$S", "unchecked")
+                        .build())
+                        .addStatement("$T instance = ($T) POOL.poll()", implType, implType);
+            }
+            acquire.beginControlFlow("if (instance == null)")
+                    .addStatement(typeVariables.isEmpty() ? "return new $T($L)" : "return new $T<>($L)", impl, arguments)
+                    .endControlFlow();
+            if (onAcquire != null) {
+                for (TypeMirror thrown : onAcquire.getThrownTypes()) {
+                    acquire.addException(TypeName.get(thrown));
+                }
+                acquire.addStatement("instance.onAcquire($L)", arguments);
+            }
+            methods.add(acquire.addStatement("return instance").build());
+        }
+        if (!acquirable) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "pooled classes need a no argument constructor or onAcquire methods", element);
+        }
+
+        TypeName elementType = TypeName.get(typesUtils.erasure(element.asType()));
+        methods.add(MethodSpec.methodBuilder("release")
+                .addJavadoc("Reset instance, an instance built by this class, and keep it for reuse if the pool is not full\n")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(elementType, "instance")
+                .addStatement("$T pooled = ($T) instance", impl, impl)
+                .addStatement("pooled.reset()")
+                .addStatement("POOL.offer(pooled)")
+                .build());
+    }
+
+    /**
+     * reset(): flush batches, clear caches, drop thread local delegates then clear the non private
+     * fields of element. Delegates are kept, the cleared fields are set up again by onAcquire(...).
+     */
+    private MethodSpec buildReset(TypeElement element, AutoImplement autoImplement, List<FieldSpec> fields) {
+        MethodSpec.Builder reset = MethodSpec.methodBuilder("reset")
+                .addJavadoc("Clear this instance before reuse\n")
+                .addModifiers(Modifier.PUBLIC);
+        if (autoImplement.finalImpl()) {
+            reset.addModifiers(Modifier.FINAL);
+        }
+        boolean userReset = false;
+        for (ExecutableElement method : ElementFilter.methodsIn(elementsUtils.getAllMembers(element))) {
+            if (method.getSimpleName().contentEquals("reset") && method.getParameters().isEmpty()) {
+                reset.addAnnotation(Override.class);
+                if (method.getModifiers().contains(Modifier.FINAL)) {
+                    messager.printMessage(Diagnostic.Kind.ERROR, "reset() cannot be final in pooled classes", method);
+                }
+                if (!method.getModifiers().contains(Modifier.ABSTRACT)) {
+                    userReset = true;
+                    reset.addStatement("super.reset()");
+                }
+                break;
+            }
+        }
+        //batched calls go to the delegates before they are cleared
+        for (FieldSpec field : fields) {
+            if (field.name.startsWith(BATCHER)) {
+                reset.addStatement("$N.flush()", field.name);
+            }
+        }
+        for (FieldSpec field : fields) {
+            if (field.name.startsWith(CACHE)) {
+                reset.addStatement("$N.clear()", field.name);
+            }
+        }
+        //delegates created for other threads are dropped too
+        for (FieldSpec field : fields) {
+            if (field.name.startsWith(LOCAL)) {
+                reset.addStatement("$N = $L", field.name, field.initializer);
+            }
+        }
+        //initializers and constructors only run for new instances
+        boolean setUp = getOnAcquire(element, Collections.<VariableElement>emptyList()) != null;
+        for (VariableElement field : ElementFilter.fieldsIn(element.getEnclosedElements())) {
+            Set<Modifier> modifiers = field.getModifiers();
+            if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.FINAL)
+                    || field.getAnnotation(ImplementationOf.class) != null) {
+                continue;
+            }
+            if (modifiers.contains(Modifier.PRIVATE)) {
+                if (!userReset) {
+                    messager.printMessage(Diagnostic.Kind.WARNING, "private fields are not reset, reset them in reset()", field);
+                }
+                continue;
+            }
+            if (!setUp) {
+                messager.printMessage(Diagnostic.Kind.WARNING, "reset() clears this field, set it up again in onAcquire()", field);
+            }
+            reset.addStatement("$N = $L", field.getSimpleName(), getDefaultValue(field.asType()));
+        }
+        return reset.build();
+    }
+
+    /**
+     * @return onAcquire method of element with the given parameter types, null if none
+     */
+    private ExecutableElement getOnAcquire(TypeElement element, List<? extends VariableElement> parameters) {
+        for (ExecutableElement method : ElementFilter.methodsIn(elementsUtils.getAllMembers(element))) {
+            if (!method.getSimpleName().contentEquals("onAcquire")
+                    || method.getModifiers().contains(Modifier.PRIVATE)
+                    || method.getParameters().size() != parameters.size()) {
+                continue;
+            }
+            boolean same = true;
+            for (int i = 0; i < parameters.size() && same; i++) {
+                same = typesUtils.isSameType(
+                        typesUtils.erasure(method.getParameters().get(i).asType()),
+                        typesUtils.erasure(parameters.get(i).asType()));
+            }
+            if (same) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    private static String getDefaultValue(TypeMirror type) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return "false";
+            case CHAR:
+                return "'\\0'";
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+            case FLOAT:
+            case DOUBLE:
+                return "0";
+            default:
+                return "null";
+        }
+    }
+
+    /**
+     * @return generated implementation of element, a top level class of the same package
+     */
+    static ClassName getImplName(TypeElement element, Elements elementsUtils) {
+        return ClassName.get(
+                elementsUtils.getPackageOf(element).getQualifiedName().toString(),
+                element.getSimpleName() + SUFFIX
+        );
+    }
+
+    /**
+     * Nested factory calling the generated constructors directly, used by AutoImplUtils before reflection.
+     * As with reflection, what a constructor throws is wrapped in an InvocationTargetException.
+     */
+    private TypeSpec buildFactory(TypeElement element, ClassName impl, List<ExecutableElement> constructors) {
+        TypeName type = TypeName.get(typesUtils.erasure(element.asType()));
+        MethodSpec typeMethod = MethodSpec.methodBuilder("type")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .returns(ParameterizedTypeName.get(ClassName.get(Class.class), type))
+                .addStatement("return $T.class", type)
+                .build();
+
+        MethodSpec.Builder create = MethodSpec.methodBuilder("create")
+                .addAnnotation(Override.class)
+                .addAnnotation(AnnotationSpec.builder(SuppressWarnings.class)
+                        .addMember("value", "$S", "unchecked")
+                        .build())
+                .addModifiers(Modifier.PUBLIC)
+                .returns(type)
+                .addParameter(Class[].class, "constructorsType")
+                .addParameter(Object[].class, "constructorParams")
+                .addException(InvocationTargetException.class);
+        for (ExecutableElement cons : constructors) {
+            List<? extends VariableElement> parameters = cons.getParameters();
+            StringBuilder arguments = new StringBuilder();
+            if (parameters.isEmpty()) {
+                create.beginControlFlow("if (constructorsType == null || constructorsType.length == 0)");
+            } else {
+                CodeBlock.Builder condition = CodeBlock.builder()
+                        .add("constructorsType != null && constructorsType.length == $L", parameters.size());
+                for (int i = 0; i < parameters.size(); i++) {
+                    TypeMirror parameterType = parameters.get(i).asType();
+                    condition.add("\n&& constructorsType[$L] == $T.class", i, TypeName.get(typesUtils.erasure(parameterType)));
+                }
+                create.beginControlFlow("if ($>$>$L$<$<)", condition.build());
+                //arguments cast and unboxed before the call, their failures are not the constructor ones
+                for (int i = 0; i < parameters.size(); i++) {
+                    //erased, the static factory cannot see type variables
+                    TypeName parameterType = TypeName.get(typesUtils.erasure(parameters.get(i).asType()));
+                    String argument = "arg$" + i;
+                    create.addStatement("$T $N = ($T) constructorParams[$L]", parameterType, argument, parameterType.box(), i);
+                    arguments.append(i == 0 ? "" : ", ").append(argument);
+                }
+            }
+            create.beginControlFlow("try")
+                    .addStatement("return new $T($L)", impl, arguments)
+                    .nextControlFlow("catch ($T e)", Throwable.class)
+                    .addStatement("throw new $T(e)", InvocationTargetException.class)
+                    .endControlFlow();
+            create.endControlFlow();
+        }
+        create.addStatement("return null");
+
+        return TypeSpec.classBuilder(FACTORY)
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                .addSuperinterface(ParameterizedTypeName.get(ClassName.get(AutoImplFactory.class), type))
+                .addMethod(typeMethod)
+                .addMethod(create.build())
+                .build();
+    }
+
     private List<MethodSpec> buildConstructors(List<ExecutableElement> constructors) {
         List<MethodSpec> consSpec = new LinkedList<>();
         for (ExecutableElement cons : constructors) {
@@ -152,6 +574,9 @@ public class AutoImplementProcessor extends AbstractProcessor {
                 result.add(ParameterSpec.get(parameter));
             }
             builder.addParameters(result);
+            for (TypeMirror thrown : cons.getThrownTypes()) {
+                builder.addException(TypeName.get(thrown));
+            }
             StringBuilder params = new StringBuilder();
             boolean hasComma = false;
             for (VariableElement variableElement : cons.getParameters()) {
@@ -168,7 +593,12 @@ public class AutoImplementProcessor extends AbstractProcessor {
         return consSpec;
     }
 
-    private MethodSpec buildMethod(VariableElement field, ExecutableElement methodElement) {
+    /**
+     * @param fields : fields used by generated methods, filled here
+     * @param names  : names of these fields, kept unique
+     */
+    private MethodSpec buildMethod(TypeElement element, ClassName impl, BindingImpl binding, ExecutableElement methodElement,
+                                   AutoImplement autoImplement, List<FieldSpec> fields, Set<String> names) {
         String methodName = methodElement.getSimpleName().toString();
         StringBuilder params = new StringBuilder();
         boolean hasComma = false;
@@ -176,15 +606,752 @@ public class AutoImplementProcessor extends AbstractProcessor {
             params.append(variableElement.getSimpleName()).append(",");
             hasComma = true;
         }
-        MethodSpec.Builder builder = MethodSpec.overriding(methodElement);
+        //Concrete signature, type arguments resolved
+        DeclaredType enclosingType = getEnclosingType(element, binding.getField(), methodElement);
+        MethodSpec.Builder builder = enclosingType == null
+                ? MethodSpec.overriding(methodElement)
+                : MethodSpec.overriding(methodElement, enclosingType, typesUtils);
+        if (autoImplement.finalImpl()) {
+            builder.addModifiers(Modifier.FINAL);
+        }
         String paramsMethod = "";
         if (hasComma) {
             paramsMethod = params.substring(0, params.length() - 1);
         }
-        if (methodElement.getReturnType().getKind() != TypeKind.VOID) {
-            builder.addStatement("return " + field.getSimpleName().toString() + "." + methodName + "(" + paramsMethod + ")");
+        //unique per generated method, suffix of the fields it uses
+        String id = getUniqueName(names, methodName);
+        String signature = getSignature(element, binding.getField(), methodElement);
+        ExecutableType methodType = (ExecutableType) (enclosingType == null
+                ? methodElement.asType()
+                : typesUtils.asMemberOf(enclosingType, methodElement));
+        boolean isVoid = methodType.getReturnType().getKind() == TypeKind.VOID;
+        CodeBlock invocation = CodeBlock.of("$L.$N($L)", getDelegate(binding), methodName, paramsMethod);
+
+        CodeBlock call;
+        boolean unchecked = false;
+        Memoize memoize = methodElement.getAnnotation(Memoize.class);
+        Batch batch = methodElement.getAnnotation(Batch.class);
+        if (batch != null && binding.getComposite() != null) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "batched methods cannot be composite", methodElement);
+            batch = null;
+        }
+        TypeMirror batchType = batch == null ? null : getBatchType(binding, methodElement, methodType, batch);
+        CodeBlock composite = null;
+        if (binding.getComposite() != null) {
+            composite = getCompositeCall(element, binding, methodElement, methodType, signature);
+            unchecked = !binding.getComposite().merger().isEmpty();
+        }
+        String limiter = null;
+        Bulkhead bulkhead = methodElement.getAnnotation(Bulkhead.class);
+        if (bulkhead != null && batchType != null) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "batched methods cannot have a bulkhead, put it on the delegate", methodElement);
+        } else if (bulkhead != null) {
+            limiter = "METHOD_LIMIT$" + id;
+            fields.add(buildLimiter(impl, limiter, signature, bulkhead));
+        }
+        String flights = null;
+        if (methodElement.getAnnotation(SingleFlight.class) != null) {
+            if (batchType != null) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "batched methods cannot be single flight", methodElement);
+            } else {
+                flights = "flights$" + id;
+                fields.add(FieldSpec.builder(InFlightCalls.class, flights, Modifier.PRIVATE, Modifier.FINAL)
+                        .initializer("new $T()", InFlightCalls.class)
+                        .build());
+                unchecked = true;
+            }
+        }
+        Confined confined = binding.getField().getAnnotation(Confined.class);
+        boolean coalesce = methodElement.getAnnotation(Coalesce.class) != null;
+        boolean dispatched = confined != null && isVoid && checkDispatched(methodElement, methodType, batchType, flights);
+        //other delegates of the interface are called directly
+        if (coalesce && confined != null && !isVoid) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "@Coalesce needs a void method of a @Confined delegate", methodElement);
+        }
+        if (dispatched) {
+            CodeBlock body = buildDelegateCall(binding, methodElement, methodType, signature, invocation, composite,
+                    limiter, null, null, "$L;\n");
+            CodeBlock executor = CodeBlock.of("$N()", confined.value());
+            if (coalesce) {
+                String slot = "coalesce$" + id;
+                fields.add(FieldSpec.builder(CoalescingSlot.class, slot, Modifier.PRIVATE, Modifier.FINAL)
+                        .initializer("new $T()", CoalescingSlot.class)
+                        .build());
+                call = CodeBlock.of("$N.dispatch($L, () -> {\n$>$L$<});\n", slot, executor, body);
+            } else {
+                call = CodeBlock.of("$L.execute(() -> {\n$>$L$<});\n", executor, body);
+            }
+        } else if (memoize != null && !isVoid) {
+            String stats = "CACHE_STATS$" + id;
+            String cache = CACHE + id;
+            fields.add(FieldSpec.builder(CacheStats.class, stats, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                    .initializer("$T.register($T.class, $S)", AutoImplCaches.class, impl, signature)
+                    .build());
+            fields.add(FieldSpec.builder(MemoCache.class, cache, Modifier.PRIVATE, Modifier.FINAL)
+                    .initializer("new $T($L, $LL, $N)", MemoCache.class, memoize.maxSize(), memoize.expireAfterWriteMillis(), stats)
+                    .build());
+            unchecked = true;
+            CodeBlock compute = buildDelegateCall(binding, methodElement, methodType, signature, invocation, composite,
+                    limiter, flights, CodeBlock.of("key$$"), "result$$ = $L;\n");
+            call = buildMemoizedCall(compute, getCallKey(methodElement), cache, TypeName.get(methodType.getReturnType()));
+        } else if (batchType != null) {
+            String batcher = BATCHER + id;
+            fields.add(buildBatcher(binding, batcher, batch, TypeName.get(batchType)));
+            call = CodeBlock.of("$N.add($N);\n", batcher, methodElement.getParameters().get(0).getSimpleName());
         } else {
-            builder.addStatement(field.getSimpleName().toString() + "." + methodName + "(" + paramsMethod + ")");
+            if (memoize != null) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "void methods cannot be memoized", methodElement);
+            }
+            call = buildDelegateCall(binding, methodElement, methodType, signature, invocation, composite,
+                    limiter, flights, flights == null ? null : getCallKey(methodElement), isVoid ? "$L;\n" : "return $L;\n");
+        }
+        if (unchecked) {
+            builder.addAnnotation(AnnotationSpec.builder(SuppressWarnings.class)
+                    .addMember("value", "$S", "unchecked")
+                    .build());
+        }
+
+        if (autoImplement.metrics()) {
+            String metrics = "METRICS$" + id;
+            fields.add(FieldSpec.builder(MethodMetrics.class, metrics, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                    .initializer("$T.register($T.class, $S)", AutoImplMetrics.class, impl, signature)
+                    .build());
+            call = buildMetricsCall(call, metrics);
+        }
+        builder.addCode(call);
+        return builder.build();
+    }
+
+    /**
+     * @return true if method can run on a confined thread, report why not otherwise
+     */
+    private boolean checkDispatched(ExecutableElement method, ExecutableType methodType, TypeMirror batchType, String flights) {
+        if (batchType != null || flights != null) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "confined methods cannot be batched or single flight", method);
+            return false;
+        }
+        TypeMirror runtimeException = elementsUtils.getTypeElement(RuntimeException.class.getCanonicalName()).asType();
+        TypeMirror error = elementsUtils.getTypeElement(Error.class.getCanonicalName()).asType();
+        for (TypeMirror thrown : methodType.getThrownTypes()) {
+            if (!typesUtils.isSubtype(thrown, runtimeException) && !typesUtils.isSubtype(thrown, error)) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "confined methods cannot throw checked exceptions, nobody would catch them", method);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Call the delegate (guarded), or the composite, through the single flight calls if any.
+     *
+     * @param composite    : composite call expression, null if not composite
+     * @param limiter      : limiter field of the method, null if none
+     * @param flights      : single flight calls field, null if none
+     * @param resultFormat : statement using the result, $L being the call expression
+     */
+    private CodeBlock buildDelegateCall(BindingImpl binding, ExecutableElement method, ExecutableType methodType,
+                                        String signature, CodeBlock invocation, CodeBlock composite,
+                                        String limiter, String flights, CodeBlock key, String resultFormat) {
+        if (flights != null) {
+            boolean isVoid = methodType.getReturnType().getKind() == TypeKind.VOID;
+            CodeBlock.Builder shared = CodeBlock.builder()
+                    .add(buildDelegateCall(binding, method, methodType, signature, invocation, composite,
+                            limiter, null, null, isVoid ? "$L;\n" : "return $L;\n"));
+            if (isVoid) {
+                shared.addStatement("return null");
+            }
+            CodeBlock join = CodeBlock.of("$N.join($L, () -> {\n$>$L$<})", flights, key, shared.build());
+            if (!isVoid) {
+                join = CodeBlock.of("($T) $L", TypeName.get(methodType.getReturnType()).box(), join);
+            }
+            return buildRethrow(CodeBlock.of(resultFormat, join), methodType, signature);
+        }
+        CodeBlock call = composite != null
+                ? buildCompositeCall(binding, method, methodType, signature, composite, resultFormat)
+                : guard(binding, method, CodeBlock.of(resultFormat, invocation));
+        return limiter == null ? call : limit(limiter, call);
+    }
+
+    /**
+     * @param name : delegate field or method signature the limiter is registered as
+     */
+    private FieldSpec buildLimiter(ClassName impl, String field, String name, Bulkhead bulkhead) {
+        return FieldSpec.builder(CallLimiter.class, field, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("$T.register($T.class, $S, $L, $LL, $LL)", AutoImplLimits.class, impl, name,
+                        bulkhead.maxConcurrent(), bulkhead.maxWaitMillis(), bulkhead.targetLatencyMillis())
+                .build();
+    }
+
+    private String getLimiterName(BindingImpl binding) {
+        return "LIMIT$" + binding.getField().getSimpleName();
+    }
+
+    /**
+     * Run statement holding a slot of limiter
+     */
+    private CodeBlock limit(String limiter, CodeBlock statement) {
+        //method and delegate limits can be nested
+        String permit = "permit$" + limiter;
+        return CodeBlock.builder()
+                .addStatement("long $N = $N.acquire()", permit, limiter)
+                .beginControlFlow("try")
+                .add(statement)
+                .nextControlFlow("finally")
+                .addStatement("$N.release($N)", limiter, permit)
+                .endControlFlow()
+                .build();
+    }
+
+    /**
+     * Run statement, rethrowing the checked exceptions declared by the method
+     * and wrapping the others into AutoImplException
+     */
+    private CodeBlock buildRethrow(CodeBlock statement, ExecutableType methodType, String signature) {
+        CodeBlock.Builder code = CodeBlock.builder()
+                .beginControlFlow("try")
+                .add(statement)
+                .nextControlFlow("catch ($T e$$)", Exception.class)
+                .addStatement("if (e$$ instanceof $T) throw ($T) e$$", RuntimeException.class, RuntimeException.class);
+        for (TypeMirror thrown : methodType.getThrownTypes()) {
+            TypeName thrownType = TypeName.get(typesUtils.erasure(thrown));
+            code.addStatement("if (e$$ instanceof $T) throw ($T) e$$", thrownType, thrownType);
+        }
+        return code.addStatement("throw new $T($S, e$$)", AutoImplException.class, signature + " failed")
+                .endControlFlow()
+                .build();
+    }
+
+    /**
+     * Bind the fields implementing the same interface together when one of them is {@link Composite},
+     * their methods are generated once, for the first one
+     */
+    private void groupComposites(List<BindingImpl> bindings) {
+        Set<BindingImpl> grouped = new HashSet<>();
+        for (BindingImpl binding : bindings) {
+            if (!grouped.add(binding)) {
+                continue;
+            }
+            List<BindingImpl> members = new ArrayList<>();
+            members.add(binding);
+            for (BindingImpl other : bindings) {
+                if (other != binding && !grouped.contains(other)
+                        && typesUtils.isSameType(typesUtils.erasure(binding.getInterface()), typesUtils.erasure(other.getInterface()))) {
+                    members.add(other);
+                    grouped.add(other);
+                }
+            }
+            Composite composite = null;
+            for (BindingImpl member : members) {
+                Composite memberComposite = member.getField().getAnnotation(Composite.class);
+                if (memberComposite == null) {
+                    continue;
+                }
+                if (composite != null && !composite.equals(memberComposite)) {
+                    messager.printMessage(Diagnostic.Kind.ERROR, "conflicting @Composite for " + binding.getInterface(), member.getField());
+                }
+                composite = memberComposite;
+            }
+            if (composite != null && members.size() > 1) {
+                binding.setComposite(composite, members);
+            } else if (members.size() > 1) {
+                messager.printMessage(
+                        Diagnostic.Kind.WARNING,
+                        "only " + binding.getField() + " is called for " + binding.getInterface() + ", add @Composite to call every field",
+                        members.get(1).getField()
+                );
+            } else if (composite != null) {
+                messager.printMessage(Diagnostic.Kind.WARNING, "@Composite needs several fields of " + binding.getInterface(), binding.getField());
+            }
+        }
+    }
+
+    /**
+     * @return expression calling the delegates of a composite binding
+     */
+    private CodeBlock getCompositeCall(TypeElement element, BindingImpl binding, ExecutableElement method,
+                                       ExecutableType methodType, String signature) {
+        Composite composite = binding.getComposite();
+        CodeBlock executor = getExecutor(element, binding.getField(), composite.executor());
+        if (executor == null) {
+            executor = CodeBlock.of("$T.getDefault()", AutoImplExecutors.class);
+        }
+        switch (composite.value()) {
+            case FIRST_SUCCESS:
+                return CodeBlock.of("$T.firstSuccess(calls$$, $L)", CompositeCalls.class, executor);
+            case HEDGED:
+                return CodeBlock.of("$T.hedged(calls$$, $LL, $L)", CompositeCalls.class, composite.hedgeDelayMillis(), executor);
+            default:
+                CodeBlock results = CodeBlock.of("$T.fanOut(calls$$, $L)", CompositeCalls.class, executor);
+                TypeMirror returnType = methodType.getReturnType();
+                if (returnType.getKind() == TypeKind.VOID) {
+                    return results;
+                }
+                if (!composite.merger().isEmpty()) {
+                    checkMerger(element, binding, composite.merger());
+                    return CodeBlock.of("($T) $N($S, $L)", TypeName.get(returnType).box(), composite.merger(), signature, results);
+                }
+                TypeMirror erasure = typesUtils.erasure(returnType);
+                if (typesUtils.isSameType(erasure, getErasure(Set.class))) {
+                    return CodeBlock.of("$T.union($L)", CompositeCalls.class, results);
+                }
+                //exact types only: an Object or an ArrayList result cannot hold the List concat returns
+                for (Class<?> listLike : Arrays.asList(List.class, Collection.class, Iterable.class)) {
+                    if (typesUtils.isSameType(erasure, getErasure(listLike))) {
+                        return CodeBlock.of("$T.concat($L)", CompositeCalls.class, results);
+                    }
+                }
+                return CodeBlock.of("$T.firstNonNull($L)", CompositeCalls.class, results);
+        }
+    }
+
+    private TypeMirror getErasure(Class<?> type) {
+        return typesUtils.erasure(elementsUtils.getTypeElement(type.getCanonicalName()).asType());
+    }
+
+    /**
+     * Report an error if element has no merger(String, List) method
+     */
+    private void checkMerger(TypeElement element, BindingImpl binding, String merger) {
+        for (ExecutableElement method : ElementFilter.methodsIn(elementsUtils.getAllMembers(element))) {
+            List<? extends VariableElement> parameters = method.getParameters();
+            if (method.getSimpleName().contentEquals(merger)
+                    && parameters.size() == 2
+                    && !method.getModifiers().contains(Modifier.PRIVATE)
+                    && typesUtils.isSameType(typesUtils.erasure(parameters.get(1).asType()), getErasure(List.class))) {
+                return;
+            }
+        }
+        messager.printMessage(
+                Diagnostic.Kind.ERROR,
+                "no method " + merger + "(String, List) in " + element.getSimpleName(),
+                binding.getField()
+        );
+    }
+
+    /**
+     * One Callable per delegate of the composite binding, then result (written into resultFormat)
+     */
+    private CodeBlock buildCompositeCall(BindingImpl binding, ExecutableElement method, ExecutableType methodType,
+                                         String signature, CodeBlock result, String resultFormat) {
+        boolean isVoid = methodType.getReturnType().getKind() == TypeKind.VOID;
+        TypeName resultType = isVoid ? ClassName.get(Void.class) : TypeName.get(methodType.getReturnType()).box();
+        StringBuilder params = new StringBuilder();
+        for (VariableElement parameter : method.getParameters()) {
+            params.append(params.length() == 0 ? "" : ", ").append(parameter.getSimpleName());
+        }
+        CodeBlock.Builder code = CodeBlock.builder()
+                .add("$T<$T<$T>> calls$$ = $T.asList(\n$>$>", List.class, Callable.class, resultType, Arrays.class);
+        List<BindingImpl> members = binding.getCompositeMembers();
+        for (int i = 0; i < members.size(); i++) {
+            BindingImpl member = members.get(i);
+            CodeBlock invocation = CodeBlock.of("$L.$N($L)", getDelegate(member), method.getSimpleName().toString(), params);
+            code.add("() -> {\n$>")
+                    .add(guard(member, method, isVoid ? CodeBlock.of("$L;\n", invocation) : CodeBlock.of("return $L;\n", invocation)));
+            if (isVoid) {
+                code.addStatement("return null");
+            }
+            code.add("$<}$L", i == members.size() - 1 ? "" : ",\n");
+        }
+        return code.add(");\n$<$<")
+                .add(buildRethrow(CodeBlock.of(resultFormat, result), methodType, signature))
+                .build();
+    }
+
+    /**
+     * @return boxed parameter type of a batched method, null if method or the delegate batch method is invalid
+     */
+    private TypeMirror getBatchType(BindingImpl binding, ExecutableElement method, ExecutableType methodType, Batch batch) {
+        if (methodType.getReturnType().getKind() != TypeKind.VOID || methodType.getParameterTypes().size() != 1) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "batched methods must be void with one parameter", method);
+            return null;
+        }
+        TypeMirror type = methodType.getParameterTypes().get(0);
+        if (type.getKind().isPrimitive()) {
+            type = typesUtils.boxedClass((PrimitiveType) type).asType();
+        }
+        TypeMirror fieldType = binding.getField().asType();
+        if (fieldType.getKind() == TypeKind.DECLARED) {
+            TypeElement listElement = elementsUtils.getTypeElement(List.class.getCanonicalName());
+            DeclaredType listType = typesUtils.getDeclaredType(listElement, type);
+            TypeElement delegate = (TypeElement) ((DeclaredType) fieldType).asElement();
+            for (ExecutableElement candidate : ElementFilter.methodsIn(elementsUtils.getAllMembers(delegate))) {
+                if (!candidate.getSimpleName().contentEquals(batch.value())
+                        || candidate.getParameters().size() != 1
+                        || candidate.getModifiers().contains(Modifier.STATIC)) {
+                    continue;
+                }
+                ExecutableType candidateType = (ExecutableType) typesUtils.asMemberOf((DeclaredType) fieldType, candidate);
+                if (typesUtils.isAssignable(listType, candidateType.getParameterTypes().get(0))) {
+                    return type;
+                }
+            }
+        }
+        messager.printMessage(
+                Diagnostic.Kind.ERROR,
+                "no method " + batch.value() + "(List<" + type + ">) in " + fieldType,
+                method
+        );
+        return null;
+    }
+
+    /**
+     * Batcher field of a batched method, sending its batches to the delegate batch method
+     */
+    private FieldSpec buildBatcher(BindingImpl binding, String name, Batch batch, TypeName type) {
+        TypeName listType = ParameterizedTypeName.get(ClassName.get(List.class), type);
+        TypeSpec sink = TypeSpec.anonymousClassBuilder("")
+                .addSuperinterface(ParameterizedTypeName.get(ClassName.get(CallBatcher.Sink.class), type))
+                .addMethod(MethodSpec.methodBuilder("accept")
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PUBLIC)
+                        .addParameter(listType, "calls")
+                        .addCode(guard(binding, null, CodeBlock.of("$L.$N(calls);\n", getDelegate(binding), batch.value())))
+                        .build())
+                .build();
+        TypeName batcherType = ParameterizedTypeName.get(ClassName.get(CallBatcher.class), type);
+        return FieldSpec.builder(batcherType, name, Modifier.PRIVATE, Modifier.FINAL)
+                .initializer("new $T($L, $LL, $L)", batcherType, batch.size(), batch.maxDelayMillis(), sink)
+                .build();
+    }
+
+    /**
+     * Public method calling batcherMethod on every batcher
+     */
+    private MethodSpec buildBatchersMethod(String name, String batcherMethod, List<String> batchers, boolean finalMethod) {
+        MethodSpec.Builder builder = MethodSpec.methodBuilder(name).addModifiers(Modifier.PUBLIC);
+        if (finalMethod) {
+            builder.addModifiers(Modifier.FINAL);
+        }
+        for (String batcher : batchers) {
+            builder.addStatement("$N.$N()", batcher, batcherMethod);
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return expression building the CallKey of the arguments of method
+     */
+    private CodeBlock getCallKey(ExecutableElement method) {
+        List<? extends VariableElement> parameters = method.getParameters();
+        if (parameters.size() == 1) {
+            //cast, an array argument must not become the varargs array
+            return CodeBlock.of("$T.of(($T) $N)", CallKey.class, Object.class, parameters.get(0).getSimpleName());
+        }
+        StringBuilder arguments = new StringBuilder();
+        for (VariableElement parameter : parameters) {
+            arguments.append(arguments.length() == 0 ? "" : ", ").append(parameter.getSimpleName());
+        }
+        return CodeBlock.of("$T.of($L)", CallKey.class, arguments);
+    }
+
+    /**
+     * Return the cached result, else compute it into result$ and cache it
+     */
+    private CodeBlock buildMemoizedCall(CodeBlock compute, CodeBlock key, String cache, TypeName returnType) {
+        return CodeBlock.builder()
+                .addStatement("$T key$$ = $L", Object.class, key)
+                .addStatement("$T cached$$ = $N.get(key$$)", Object.class, cache)
+                .beginControlFlow("if (cached$$ != $T.MISS)", MemoCache.class)
+                .addStatement("return ($T) cached$$", returnType.box())
+                .endControlFlow()
+                //results of delegates swapped out meanwhile are not cached
+                .addStatement("long generation$$ = $N.getGeneration()", cache)
+                .addStatement("$T result$$", returnType)
+                .add(compute)
+                .addStatement("$N.put(key$$, result$$, generation$$)", cache)
+                .addStatement("return result$$")
+                .build();
+    }
+
+    /**
+     * Time call into metrics, only constant checks while metrics are disabled.
+     * call is emitted once, it may be large (memoized calls)
+     */
+    private CodeBlock buildMetricsCall(CodeBlock call, String metrics) {
+        return CodeBlock.builder()
+                .addStatement("long start$$ = $T.ENABLED ? $T.nanoTime() : 0L", AutoImplMetrics.class, System.class)
+                .beginControlFlow("try")
+                .add(call)
+                .nextControlFlow("finally")
+                .beginControlFlow("if ($T.ENABLED)", AutoImplMetrics.class)
+                .addStatement("$N.record($T.nanoTime() - start$$)", metrics, System.class)
+                .endControlFlow()
+                .endControlFlow()
+                .build();
+    }
+
+    /**
+     * @return base, suffixed with a number if already used
+     */
+    private static String getUniqueName(Set<String> names, String base) {
+        String name = base;
+        for (int i = 2; !names.add(name); i++) {
+            name = base + "$" + i;
+        }
+        return name;
+    }
+
+    /**
+     * @return expression reading the delegate of binding in generated methods
+     */
+    private String getDelegate(BindingImpl binding) {
+        String field = binding.getField().getSimpleName().toString();
+        if (binding.getConcurrency() == Concurrency.THREAD_LOCAL) {
+            return getGuardName(binding) + ".get()";
+        }
+        return binding.isLazy() ? getLazyDelegateName(binding) + "()" : field;
+    }
+
+    /**
+     * @return lock of the binding, or its thread local delegate
+     */
+    private String getGuardName(BindingImpl binding) {
+        String prefix = binding.getConcurrency() == Concurrency.THREAD_LOCAL ? LOCAL : "lock$";
+        return prefix + binding.getField().getSimpleName();
+    }
+
+    /**
+     * @return field guarding the delegate of binding, null if invalid
+     */
+    private FieldSpec buildGuardField(TypeElement element, BindingImpl binding) {
+        String name = getGuardName(binding);
+        switch (binding.getConcurrency()) {
+            case MONITOR:
+                return FieldSpec.builder(Object.class, name, Modifier.PRIVATE, Modifier.FINAL)
+                        .initializer("new $T()", Object.class)
+                        .build();
+            case READ_WRITE:
+                return FieldSpec.builder(StampedLock.class, name, Modifier.PRIVATE, Modifier.FINAL)
+                        .initializer("new $T()", StampedLock.class)
+                        .build();
+            case THREAD_LOCAL:
+                //missing factory reported by ImplementationOfProcessor
+                if (binding.getImplementationOf().factory().isEmpty() || !checkFactory(element, binding)) {
+                    return null;
+                }
+                TypeName type = TypeName.get(binding.getField().asType());
+                TypeName localType = ParameterizedTypeName.get(ClassName.get(ThreadLocal.class), type);
+                TypeSpec local = TypeSpec.anonymousClassBuilder("")
+                        .superclass(localType)
+                        .addMethod(MethodSpec.methodBuilder("initialValue")
+                                .addAnnotation(Override.class)
+                                .addModifiers(Modifier.PROTECTED)
+                                .returns(type)
+                                .addStatement("return $N()", binding.getImplementationOf().factory())
+                                .build())
+                        .build();
+                return FieldSpec.builder(localType, name, Modifier.PRIVATE, Modifier.FINAL)
+                        .initializer("$L", local)
+                        .build();
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Wrap statement calling the delegate of binding in its bulkhead and the lock of its concurrency strategy.
+     * @param method : delegated method, null for a call modifying the delegate
+     */
+    private CodeBlock guard(BindingImpl binding, ExecutableElement method, CodeBlock statement) {
+        CodeBlock guarded = lock(binding, method, statement);
+        //slot taken before the lock, waiting callers do not hold it
+        return binding.getField().getAnnotation(Bulkhead.class) == null ? guarded : limit(getLimiterName(binding), guarded);
+    }
+
+    private CodeBlock lock(BindingImpl binding, ExecutableElement method, CodeBlock statement) {
+        String lock = getGuardName(binding);
+        switch (binding.getConcurrency()) {
+            case MONITOR:
+                return CodeBlock.builder()
+                        .beginControlFlow("synchronized ($N)", lock)
+                        .add(statement)
+                        .endControlFlow()
+                        .build();
+            case READ_WRITE:
+                boolean read = method != null && method.getAnnotation(ReadOnly.class) != null;
+                return CodeBlock.builder()
+                        .addStatement("long stamp$$ = $N.$N()", lock, read ? "readLock" : "writeLock")
+                        .beginControlFlow("try")
+                        .add(statement)
+                        .nextControlFlow("finally")
+                        .addStatement("$N.$N(stamp$$)", lock, read ? "unlockRead" : "unlockWrite")
+                        .endControlFlow()
+                        .build();
+            default:
+                return statement;
+        }
+    }
+
+    private String getLazyDelegateName(BindingImpl binding) {
+        return "delegate$" + binding.getField().getSimpleName();
+    }
+
+    private String getLazyLockName(BindingImpl binding) {
+        return "lazyLock$" + binding.getField().getSimpleName();
+    }
+
+    /**
+     * Updater of the delegate field, erased: field updaters work on raw classes
+     */
+    private FieldSpec buildSwapUpdater(TypeElement element, BindingImpl binding) {
+        VariableElement field = binding.getField();
+        TypeName owner = TypeName.get(typesUtils.erasure(element.asType()));
+        TypeName type = TypeName.get(typesUtils.erasure(field.asType()));
+        return FieldSpec.builder(
+                ParameterizedTypeName.get(ClassName.get(AtomicReferenceFieldUpdater.class), owner, type),
+                "SWAP$" + field.getSimpleName(),
+                Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("$T.newUpdater($T.class, $T.class, $S)",
+                        AtomicReferenceFieldUpdater.class, owner, type, field.getSimpleName())
+                .build();
+    }
+
+    /**
+     * swapXxx(next) replacing the delegate of binding, returning the previous one
+     */
+    private MethodSpec buildSwapMethod(BindingImpl binding, FieldSpec updater, List<String> caches, boolean finalMethod) {
+        VariableElement field = binding.getField();
+        String name = field.getSimpleName().toString();
+        TypeName type = TypeName.get(field.asType());
+        MethodSpec.Builder builder = MethodSpec.methodBuilder("swap" + Character.toUpperCase(name.charAt(0)) + name.substring(1))
+                .addJavadoc("Atomically replace $N, calls in progress end on the previous delegate\n", name)
+                .addJavadoc(caches.isEmpty() ? "" : "Clears the memoized results of its methods\n")
+                .addJavadoc("@return previous delegate\n")
+                .addModifiers(Modifier.PUBLIC)
+                .returns(type)
+                .addParameter(type, "next");
+        if (finalMethod) {
+            builder.addModifiers(Modifier.FINAL);
+        }
+        if (!type.equals(TypeName.get(typesUtils.erasure(field.asType())))) {
+            builder.addAnnotation(AnnotationSpec.builder(SuppressWarnings.class)
+                    .addMember("value", "$S", "unchecked")
+                    .build());
+            builder.addStatement("$T previous = ($T) $N.getAndSet(this, next)", type, type, updater);
+        } else {
+            builder.addStatement("$T previous = $N.getAndSet(this, next)", type, updater);
+        }
+        //cleared after the swap, calls still on the previous delegate do not cache their results
+        for (String cache : caches) {
+            builder.addStatement("$N.clear()", cache);
+        }
+        return builder.addStatement("return previous").build();
+    }
+
+    /**
+     * Double checked creation of a lazy delegate, a single volatile read once created.
+     * Locks a private object, user code may synchronize on the instance.
+     *
+     * @param updater : swap updater of the delegate, null if not swappable. A delegate swapped in
+     *                while the factory runs wins over the created one
+     */
+    private MethodSpec buildLazyDelegate(BindingImpl binding, FieldSpec lock, FieldSpec updater) {
+        VariableElement field = binding.getField();
+        String factory = binding.getImplementationOf().factory();
+        MethodSpec.Builder builder = MethodSpec.methodBuilder(getLazyDelegateName(binding))
+                .addModifiers(Modifier.PRIVATE)
+                .returns(TypeName.get(field.asType()))
+                .addStatement("$T delegate = $N", field.asType(), field.getSimpleName())
+                .beginControlFlow("if (delegate == null)")
+                .beginControlFlow("synchronized ($N)", lock)
+                .addStatement("delegate = $N", field.getSimpleName())
+                .beginControlFlow("if (delegate == null)")
+                .addStatement("delegate = $N()", factory);
+        if (updater == null) {
+            builder.addStatement("$N = delegate", field.getSimpleName());
+        } else {
+            builder.beginControlFlow("if (!$N.compareAndSet(this, null, delegate))", updater)
+                    .addStatement("delegate = $N", field.getSimpleName())
+                    .endControlFlow();
+        }
+        return builder.endControlFlow()
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("return delegate")
+                .build();
+    }
+
+    /**
+     * @return true if the lazy factory of binding is a no argument, non private method
+     * of element returning the delegate type
+     */
+    private boolean checkFactory(TypeElement element, BindingImpl binding) {
+        VariableElement field = binding.getField();
+        return checkMethod(element, field, binding.getImplementationOf().factory(), field.asType());
+    }
+
+    /**
+     * @param origin : element reported on error
+     * @return true if element has a no argument, non private method name returning returnType
+     */
+    private boolean checkMethod(TypeElement element, Element origin, String name, TypeMirror returnType) {
+        for (ExecutableElement method : ElementFilter.methodsIn(elementsUtils.getAllMembers(element))) {
+            if (method.getSimpleName().contentEquals(name)
+                    && method.getParameters().isEmpty()
+                    && !method.getModifiers().contains(Modifier.PRIVATE)
+                    && typesUtils.isAssignable(method.getReturnType(), returnType)) {
+                return true;
+            }
+        }
+        messager.printMessage(
+                Diagnostic.Kind.ERROR,
+                "no method " + name + "() returning " + returnType + " in " + element.getSimpleName(),
+                origin
+        );
+        return false;
+    }
+
+    /**
+     * @param name : no argument method of element returning an Executor, empty for the default executor
+     * @return expression of the executor, null if invalid
+     */
+    private CodeBlock getExecutor(TypeElement element, Element origin, String name) {
+        if (name.isEmpty()) {
+            return CodeBlock.of("$T.getDefault()", AutoImplExecutors.class);
+        }
+        TypeMirror executorType = elementsUtils.getTypeElement(Executor.class.getCanonicalName()).asType();
+        if (!checkMethod(element, origin, name, executorType)) {
+            return null;
+        }
+        return CodeBlock.of("$N()", name);
+    }
+
+    /**
+     * xxxAsync variant of a generated method, calling it on executor.
+     * Checked exceptions complete the future exceptionally, wrapped in a CompletionException.
+     */
+    private MethodSpec buildAsyncMethod(MethodSpec method, CodeBlock executor, boolean finalMethod) {
+        boolean isVoid = method.returnType.equals(TypeName.VOID);
+        TypeName resultType = isVoid ? ClassName.get(Void.class) : method.returnType.box();
+        StringBuilder params = new StringBuilder();
+        for (ParameterSpec parameter : method.parameters) {
+            params.append(params.length() == 0 ? "" : ", ").append(parameter.name);
+        }
+        CodeBlock call = isVoid
+                ? CodeBlock.of("$N($L);\n", method.name, params)
+                : CodeBlock.of("return $N($L);\n", method.name, params);
+        if (!method.exceptions.isEmpty()) {
+            call = CodeBlock.builder()
+                    .beginControlFlow("try")
+                    .add(call)
+                    .nextControlFlow("catch ($T e)", RuntimeException.class)
+                    .addStatement("throw e")
+                    .nextControlFlow("catch ($T e)", Exception.class)
+                    .addStatement("throw new $T(e)", CompletionException.class)
+                    .endControlFlow()
+                    .build();
+        }
+
+        MethodSpec.Builder builder = MethodSpec.methodBuilder(method.name + "Async")
+                .addModifiers(Modifier.PUBLIC)
+                .addTypeVariables(method.typeVariables)
+                .addParameters(method.parameters)
+                .returns(ParameterizedTypeName.get(ClassName.get(CompletableFuture.class), resultType))
+                .addCode("return $T.$N(() -> {\n$>", CompletableFuture.class, isVoid ? "runAsync" : "supplyAsync")
+                .addCode(call)
+                .addCode("$<}, $L);\n", executor);
+        if (finalMethod) {
+            builder.addModifiers(Modifier.FINAL);
         }
         return builder.build();
     }
@@ -200,18 +1367,155 @@ public class AutoImplementProcessor extends AbstractProcessor {
                 executableMap.put(binding, new LinkedList<>());
             }
             TypeElement bindingInterface = (TypeElement) typesUtils.asElement(binding.getInterface());
-            //Get all interface method and add them to map
-            for (ExecutableElement e : ElementFilter.methodsIn(bindingInterface.getEnclosedElements())) {
-                executableMap.get(binding).add(e);
-            }
-            //browse all interfaces of interface and add all methods
-            for (TypeMirror typeMirror : getAllInterfaces(bindingInterface)) {
-                for (ExecutableElement e : ElementFilter.methodsIn(typesUtils.asElement(typeMirror).getEnclosedElements())) {
-                    executableMap.get(binding).add(e);
+            //Get all interface and super interfaces methods, resolved once per round
+            executableMap.get(binding).addAll(interfaceResolver.getAllMethods(bindingInterface));
+        }
+        return executableMap;
+    }
+
+    /**
+     * Keep the methods element does not implement yet, each signature once.
+     * Default methods, methods already implemented by element and methods inherited
+     * through several interfaces are skipped.
+     *
+     * @param executableMap : all methods of members interfaces
+     * @return map of methods to generate
+     */
+    private Map<BindingImpl, List<ExecutableElement>> resolveMethods(TypeElement element,
+                                                                     Map<BindingImpl, List<ExecutableElement>> executableMap) {
+        //element members by name, inherited ones included
+        Map<String, List<ExecutableElement>> members = new HashMap<>();
+        for (ExecutableElement member : ElementFilter.methodsIn(elementsUtils.getAllMembers(element))) {
+            members.computeIfAbsent(member.getSimpleName().toString(), name -> new ArrayList<>()).add(member);
+        }
+        int implemented = 0;
+        int defaults = 0;
+        int abstracts = 0;
+        int generated = 0;
+
+        //per signature, the declaration whose return type is a subtype of the others,
+        //e.g. String get() rather than Object get() in a covariant diamond
+        Map<String, Candidate> chosen = new HashMap<>();
+        Map<BindingImpl, Map<ExecutableElement, String>> signatures = new HashMap<>();
+        for (Map.Entry<BindingImpl, List<ExecutableElement>> entry : executableMap.entrySet()) {
+            VariableElement field = entry.getKey().getField();
+            Map<ExecutableElement, String> bindingSignatures = new HashMap<>();
+            signatures.put(entry.getKey(), bindingSignatures);
+            for (ExecutableElement method : entry.getValue()) {
+                ExecutableElement member = getMember(element, members, method);
+                if (!member.getModifiers().contains(Modifier.ABSTRACT)) {
+                    if (member.getEnclosingElement().getKind() == ElementKind.INTERFACE) {
+                        defaults++;
+                    } else {
+                        implemented++;
+                    }
+                    continue;
+                }
+                abstracts++;
+                String signature = getSignature(element, field, method);
+                bindingSignatures.put(method, signature);
+                TypeMirror returnType = getMemberType(element, field, method).getReturnType();
+                Candidate current = chosen.get(signature);
+                if (current == null || (!typesUtils.isSameType(current.returnType, returnType)
+                        && typesUtils.isSubtype(returnType, current.returnType))) {
+                    chosen.put(signature, new Candidate(entry.getKey(), method, returnType));
                 }
             }
         }
-        return executableMap;
+
+        Map<BindingImpl, List<ExecutableElement>> resolved = new LinkedHashMap<>();
+        for (Map.Entry<BindingImpl, List<ExecutableElement>> entry : executableMap.entrySet()) {
+            List<ExecutableElement> methods = new ArrayList<>();
+            Map<ExecutableElement, String> bindingSignatures = signatures.get(entry.getKey());
+            for (ExecutableElement method : entry.getValue()) {
+                String signature = bindingSignatures.get(method);
+                Candidate candidate = signature == null ? null : chosen.get(signature);
+                if (candidate != null && candidate.binding == entry.getKey() && candidate.method == method) {
+                    methods.add(method);
+                    generated++;
+                    //listed twice by the binding, generated once
+                    chosen.remove(signature);
+                }
+            }
+            resolved.put(entry.getKey(), methods);
+        }
+        int duplicates = abstracts - generated;
+
+        int saved = implemented + defaults + duplicates;
+        savedMethods += saved;
+        if (printStats && saved > 0) {
+            messager.printMessage(Diagnostic.Kind.NOTE, String.format(
+                    "%s: %d methods generated, %d saved (%d already implemented, %d default or static, %d duplicate)",
+                    element.getSimpleName() + SUFFIX, generated, saved, implemented, defaults, duplicates
+            ), element);
+        }
+        return resolved;
+    }
+
+    /**
+     * @return the member of element overriding method, or method itself when element does not inherit it
+     */
+    private ExecutableElement getMember(TypeElement element, Map<String, List<ExecutableElement>> members,
+                                        ExecutableElement method) {
+        List<ExecutableElement> candidates = members.get(method.getSimpleName().toString());
+        if (candidates != null) {
+            for (ExecutableElement candidate : candidates) {
+                if (candidate.equals(method) || elementsUtils.overrides(candidate, method, element)) {
+                    return candidate;
+                }
+            }
+        }
+        return method;
+    }
+
+    /**
+     * @return name and erased parameters of method, as seen from element
+     */
+    private String getSignature(TypeElement element, VariableElement field, ExecutableElement method) {
+        StringBuilder signature = new StringBuilder(method.getSimpleName()).append('(');
+        List<? extends TypeMirror> parameters = getMemberType(element, field, method).getParameterTypes();
+        for (int i = 0; i < parameters.size(); i++) {
+            signature.append(i == 0 ? "" : ",").append(typesUtils.erasure(parameters.get(i)));
+        }
+        return signature.append(')').toString();
+    }
+
+    /**
+     * @return type of method seen from element or field, type variables substituted
+     */
+    private ExecutableType getMemberType(TypeElement element, VariableElement field, ExecutableElement method) {
+        DeclaredType enclosingType = getEnclosingType(element, field, method);
+        return (ExecutableType) (enclosingType == null ? method.asType() : typesUtils.asMemberOf(enclosingType, method));
+    }
+
+    /**
+     * @return signatures of the non private methods of element, inherited ones included
+     */
+    private Set<String> getMemberSignatures(TypeElement element) {
+        Set<String> signatures = new HashSet<>();
+        for (ExecutableElement member : ElementFilter.methodsIn(elementsUtils.getAllMembers(element))) {
+            if (!member.getModifiers().contains(Modifier.PRIVATE)) {
+                //element inherits member, the field is not used
+                signatures.add(getSignature(element, null, member));
+            }
+        }
+        return signatures;
+    }
+
+    /**
+     * @return the parameterized type method is seen from: element when it inherits method,
+     * else the declared type of field (e.g. Repository&lt;User&gt;), null if none applies
+     */
+    private DeclaredType getEnclosingType(TypeElement element, VariableElement field, ExecutableElement method) {
+        TypeMirror owner = typesUtils.erasure(method.getEnclosingElement().asType());
+        if (typesUtils.isSubtype(typesUtils.erasure(element.asType()), owner)) {
+            return (DeclaredType) element.asType();
+        }
+        TypeMirror fieldType = field.asType();
+        if (fieldType.getKind() == TypeKind.DECLARED && typesUtils.isSubtype(typesUtils.erasure(fieldType), owner)) {
+            return (DeclaredType) fieldType;
+        }
+        return null;
     }
 
     private List<BindingImpl> getImplMap(TypeElement te) {
@@ -231,34 +1535,9 @@ public class AutoImplementProcessor extends AbstractProcessor {
         return implMap;
     }
 
-    private Set<? extends TypeMirror> getAllInterfaces(TypeElement te) {
-        Set<TypeMirror> interfaces = new HashSet<>(te.getInterfaces());
-        for (TypeMirror tm : te.getInterfaces()) {
-            Set<TypeMirror> set = new LinkedHashSet<>();
-            interfaces.addAll(listInterfaces(set, tm));
-        }
-        return interfaces;
-    }
-
-    private Collection<? extends TypeMirror> listInterfaces(Set<TypeMirror> set, TypeMirror tm) {
-        TypeElement te = (TypeElement) typesUtils.asElement(tm);
-        if (te.getInterfaces().size() == 0) {
-            return Collections.singleton(tm);
-        } else {
-            for (TypeMirror typeMirror : te.getInterfaces()) {
-                TypeElement typeElement = (TypeElement) typesUtils.asElement(typeMirror);
-                Set<TypeMirror> childNode;
-                if (typeElement.getInterfaces().size() == 0) {
-                    childNode = Collections.singleton(typeMirror);
-                } else {
-                    childNode = new LinkedHashSet<>();
-                    childNode.add(typeMirror);
-                    set.addAll(listInterfaces(childNode, typeMirror));
-                }
-                set.addAll(childNode);
-            }
-        }
-        return set;
+    @Override
+    public Set<String> getSupportedOptions() {
+        return Collections.singleton(OPTION_STATS);
     }
 
     @Override
@@ -270,4 +1549,19 @@ public class AutoImplementProcessor extends AbstractProcessor {
     public SourceVersion getSupportedSourceVersion() {
         return SourceVersion.latestSupported();
     }
+
+    /**
+     * Declaration generated for a signature, with its return type seen from its binding
+     */
+    private static final class Candidate {
+        final BindingImpl       binding;
+        final ExecutableElement method;
+        final TypeMirror        returnType;
+
+        Candidate(BindingImpl binding, ExecutableElement method, TypeMirror returnType) {
+            this.binding = binding;
+            this.method = method;
+            this.returnType = returnType;
+        }
+    }
 }
@@ -16,6 +16,7 @@
 
 package com.steve.mvp.autoimplementprocessor;
 
+import com.steve.mvp.autoimplement.internal.Concurrency;
 import com.steve.mvp.autoimplement.internal.ImplementationOf;
 
 import java.util.Collections;
@@ -52,6 +53,25 @@ public class ImplementationOfProcessor extends AbstractProcessor {
             if(element.getModifiers().contains(Modifier.PRIVATE)){
                 messager.printMessage(Diagnostic.Kind.ERROR,element.toString()+" should not be private");
             }
+            ImplementationOf implementationOf = element.getAnnotation(ImplementationOf.class);
+            if (implementationOf.concurrency() == Concurrency.THREAD_LOCAL) {
+                //the field itself is not used, each thread gets its own delegate
+                if (implementationOf.factory().isEmpty()) {
+                    messager.printMessage(Diagnostic.Kind.ERROR, element.toString() + " needs a factory, it is created per thread", element);
+                }
+                if (implementationOf.swappable()) {
+                    messager.printMessage(Diagnostic.Kind.ERROR, element.toString() + " cannot be swapped, it is created per thread", element);
+                }
+            } else if (!implementationOf.factory().isEmpty() || implementationOf.swappable()) {
+                //written by the generated implementation, read without lock
+                String reason = implementationOf.swappable() ? "it is swapped" : "it is created lazily";
+                if (!element.getModifiers().contains(Modifier.VOLATILE)) {
+                    messager.printMessage(Diagnostic.Kind.ERROR, element.toString() + " should be volatile, " + reason, element);
+                }
+                if (element.getModifiers().contains(Modifier.FINAL)) {
+                    messager.printMessage(Diagnostic.Kind.ERROR, element.toString() + " should not be final, " + reason, element);
+                }
+            }
         }
         return true;
     }
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplementprocessor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+
+/**
+ * Resolves the interface hierarchy and the flattened method list of interfaces.
+ * Each interface is resolved once per round and shared by all bindings and classes.
+ * Elements are not reused between rounds, call {@link #clear()} at each new round.
+ * Created by Steve Tchatchouang
+ */
+class InterfaceResolver {
+    private final Types typesUtils;
+
+    private final Map<TypeElement, Set<TypeElement>>        hierarchyCache = new HashMap<>();
+    private final Map<TypeElement, List<ExecutableElement>> methodsCache   = new HashMap<>();
+
+    private int hits;
+    private int misses;
+
+    InterfaceResolver(Types typesUtils) {
+        this.typesUtils = typesUtils;
+    }
+
+    /**
+     * @return methods of the interface then the methods of its super interfaces, each interface
+     * visited once even in diamond hierarchies
+     */
+    List<ExecutableElement> getAllMethods(TypeElement te) {
+        List<ExecutableElement> methods = methodsCache.get(te);
+        if (methods != null) {
+            hits++;
+            return methods;
+        }
+        misses++;
+        methods = new ArrayList<>();
+        for (TypeElement typeElement : getHierarchy(te)) {
+            methods.addAll(ElementFilter.methodsIn(typeElement.getEnclosedElements()));
+        }
+        methods = Collections.unmodifiableList(methods);
+        methodsCache.put(te, methods);
+        return methods;
+    }
+
+    /**
+     * @return the interface, its direct super interfaces, then their own hierarchies, in declaration order
+     */
+    Set<TypeElement> getHierarchy(TypeElement te) {
+        Set<TypeElement> hierarchy = hierarchyCache.get(te);
+        if (hierarchy != null) {
+            return hierarchy;
+        }
+        hierarchy = new LinkedHashSet<>();
+        hierarchy.add(te);
+        for (TypeMirror typeMirror : te.getInterfaces()) {
+            hierarchy.add((TypeElement) typesUtils.asElement(typeMirror));
+        }
+        for (TypeMirror typeMirror : te.getInterfaces()) {
+            hierarchy.addAll(getHierarchy((TypeElement) typesUtils.asElement(typeMirror)));
+        }
+        hierarchy = Collections.unmodifiableSet(hierarchy);
+        hierarchyCache.put(te, hierarchy);
+        return hierarchy;
+    }
+
+    void clear() {
+        hierarchyCache.clear();
+        methodsCache.clear();
+        hits = 0;
+        misses = 0;
+    }
+
+    /**
+     * @return method list requests served from the cache since the last clear
+     */
+    int getHits() {
+        return hits;
+    }
+
+    /**
+     * @return method lists built since the last clear, one per top level interface
+     */
+    int getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return interfaces, super interfaces included, whose hierarchy was resolved since the last clear
+     */
+    int getResolved() {
+        return hierarchyCache.size();
+    }
+}
@@ -16,6 +16,12 @@
 
 package com.steve.mvp.autoimplementprocessor.model;
 
+import com.steve.mvp.autoimplement.internal.Composite;
+import com.steve.mvp.autoimplement.internal.Concurrency;
+import com.steve.mvp.autoimplement.internal.ImplementationOf;
+
+import java.util.List;
+
 import javax.lang.model.element.VariableElement;
 import javax.lang.model.type.TypeMirror;
 
@@ -29,6 +35,9 @@ public class BindingImpl {
     private VariableElement field;
     //interface
     private TypeMirror      _interface;
+    //bindings of the same interface called together, null if not composite
+    private Composite         composite;
+    private List<BindingImpl> compositeMembers;
 
     public BindingImpl(VariableElement field, TypeMirror _interface) {
         this.field = field;
@@ -43,4 +52,35 @@ public class BindingImpl {
         return _interface;
     }
 
+    public ImplementationOf getImplementationOf() {
+        return field.getAnnotation(ImplementationOf.class);
+    }
+
+    /**
+     * @return true if the delegate is created on first call
+     */
+    public boolean isLazy() {
+        return !getImplementationOf().factory().isEmpty() && getConcurrency() != Concurrency.THREAD_LOCAL;
+    }
+
+    public Concurrency getConcurrency() {
+        return getImplementationOf().concurrency();
+    }
+
+    public Composite getComposite() {
+        return composite;
+    }
+
+    /**
+     * @return bindings called by the methods of this one, this one first
+     */
+    public List<BindingImpl> getCompositeMembers() {
+        return compositeMembers;
+    }
+
+    public void setComposite(Composite composite, List<BindingImpl> members) {
+        this.composite = composite;
+        this.compositeMembers = members;
+    }
+
 }
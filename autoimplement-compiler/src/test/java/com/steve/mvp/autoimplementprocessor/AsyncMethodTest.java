@@ -0,0 +1,157 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplementprocessor;
+
+import com.google.testing.compile.Compilation;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import javax.tools.JavaFileObject;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static org.junit.Assert.*;
+
+/**
+ * Created by Steve Tchatchouang
+ */
+
+public class AsyncMethodTest {
+
+    private static final JavaFileObject PRESENTER = TestCompiler.source("sample.Presenter",
+            "package sample;",
+            "import com.steve.mvp.autoimplement.internal.Async;",
+            "import com.steve.mvp.autoimplement.internal.AutoImplement;",
+            "import com.steve.mvp.autoimplement.internal.ImplementationOf;",
+            "import com.steve.mvp.autoimplementprocessor.AsyncMethodTest;",
+            "@AutoImplement",
+            "public abstract class Presenter implements AsyncMethodTest.Api {",
+            "    @Async(executor = \"executor\")",
+            "    @ImplementationOf(AsyncMethodTest.Api.class)",
+            "    protected AsyncMethodTest.Api api;",
+            "    protected java.util.concurrent.Executor executor() {",
+            "        return AsyncMethodTest.EXECUTOR;",
+            "    }",
+            "    public void runAsync(int times) {",
+            "    }",
+            "}");
+
+    public static final Executor EXECUTOR = command -> {
+        Thread thread = new Thread(command, "async");
+        thread.start();
+    };
+
+    public interface Api {
+        String name() throws IOException;
+
+        CompletableFuture<String> nameAsync();
+
+        void run(int times);
+
+        void run(String label);
+
+        String load(String id) throws IOException;
+    }
+
+    /**
+     * Api with nothing to do but what a test overrides
+     */
+    private static class Delegate implements Api {
+        @Override
+        public String name() {
+            return "";
+        }
+
+        @Override
+        public CompletableFuture<String> nameAsync() {
+            return CompletableFuture.completedFuture("declared");
+        }
+
+        @Override
+        public void run(int times) {
+        }
+
+        @Override
+        public void run(String label) {
+        }
+
+        @Override
+        public String load(String id) throws IOException {
+            return id;
+        }
+    }
+
+    @Test
+    public void skipsAsyncVariantsOfExistingMethods() {
+        Compilation compilation = TestCompiler.compile(PRESENTER);
+        assertThat(compilation).succeeded();
+        assertThat(compilation).hadWarningContaining("nameAsync() already exists, not generated");
+        assertThat(compilation).hadWarningContaining("runAsync(int) already exists, not generated");
+        assertThat(compilation).generatedSourceFile("sample.Presenter_Impl").contentsAsUtf8String().contains("runAsync(String arg0)");
+        //the declared nameAsync is delegated
+        assertThat(compilation).generatedSourceFile("sample.Presenter_Impl").contentsAsUtf8String().contains("api.nameAsync()");
+    }
+
+    @Test
+    public void asyncVariantsRunOnTheExecutor() throws Exception {
+        Class<?> impl = TestCompiler.load(TestCompiler.compile(PRESENTER)).loadClass("sample.Presenter_Impl");
+        Object presenter = impl.getConstructor().newInstance();
+        final String[] thread = new String[1];
+        setDelegate(impl, presenter, new Delegate() {
+            @Override
+            public void run(String label) {
+                thread[0] = Thread.currentThread().getName() + ":" + label;
+            }
+        });
+
+        ((CompletableFuture<?>) impl.getMethod("runAsync", String.class).invoke(presenter, "label")).get(5, TimeUnit.SECONDS);
+        assertEquals("async:label", thread[0]);
+        assertEquals("declared", ((Api) presenter).nameAsync().get());
+    }
+
+    @Test
+    public void checkedExceptionsCompleteExceptionally() throws Exception {
+        Class<?> impl = TestCompiler.load(TestCompiler.compile(PRESENTER)).loadClass("sample.Presenter_Impl");
+        Object presenter = impl.getConstructor().newInstance();
+        setDelegate(impl, presenter, new Delegate() {
+            @Override
+            public String load(String id) throws IOException {
+                throw new IOException("offline " + id);
+            }
+        });
+        CompletableFuture<?> future = (CompletableFuture<?>) impl.getMethod("loadAsync", String.class).invoke(presenter, "42");
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+            assertEquals("offline 42", e.getCause().getMessage());
+        }
+    }
+
+    private static void setDelegate(Class<?> impl, Object presenter, Api api) throws Exception {
+        Field field = impl.getSuperclass().getDeclaredField("api");
+        field.setAccessible(true);
+        field.set(presenter, api);
+    }
+}
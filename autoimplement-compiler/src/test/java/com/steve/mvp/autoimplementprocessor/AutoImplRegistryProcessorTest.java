@@ -0,0 +1,115 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplementprocessor;
+
+import com.google.testing.compile.Compilation;
+import com.steve.mvp.autoimplement.AutoImplFactory;
+import com.steve.mvp.autoimplement.AutoImplRegistry;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Collections;
+
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static org.junit.Assert.*;
+
+/**
+ * Created by Steve Tchatchouang
+ */
+
+public class AutoImplRegistryProcessorTest {
+
+    private static final JavaFileObject FIRST = TestCompiler.source("a.First",
+            "package a;",
+            "import com.steve.mvp.autoimplement.internal.AutoImplement;",
+            "@AutoImplement",
+            "public abstract class First {",
+            "    public final int value;",
+            "    public First() { this(1); }",
+            "    public First(int value) { this.value = value; }",
+            "}");
+    private static final JavaFileObject SECOND = TestCompiler.source("b.Second",
+            "package b;",
+            "import com.steve.mvp.autoimplement.internal.AutoImplement;",
+            "@AutoImplement",
+            "public abstract class Second {",
+            "    public Second(String name) throws java.io.IOException {",
+            "        if (name.isEmpty()) throw new java.io.IOException(\"empty name\");",
+            "    }",
+            "}");
+
+    @Test
+    public void generatesOneRegistryForAllImplementations() throws Exception {
+        Compilation compilation = TestCompiler.compile(SECOND, FIRST);
+        //named after the first implementation, by name
+        assertThat(compilation).generatedSourceFile("a.AutoImplementRegistry");
+        JavaFileObject service = compilation.generatedFile(StandardLocation.CLASS_OUTPUT, "",
+                "META-INF/services/" + AutoImplRegistry.class.getName()).get();
+        assertEquals("a.AutoImplementRegistry\n", service.getCharContent(false).toString());
+
+        AutoImplRegistry registry = loadRegistry(compilation, "a.AutoImplementRegistry");
+        AutoImplFactory<?>[] factories = registry.factories();
+        assertEquals(2, factories.length);
+        assertEquals("a.First", factories[0].type().getName());
+        assertEquals("b.Second", factories[1].type().getName());
+        assertEquals("a.First_Impl", factories[0].create(null, null).getClass().getName());
+    }
+
+    @Test
+    public void factoriesCallTheMatchingConstructor() throws Exception {
+        AutoImplFactory<?> factory = loadRegistry(TestCompiler.compile(FIRST, SECOND), "a.AutoImplementRegistry").factories()[0];
+        Object instance = factory.create(new Class[]{int.class}, new Object[]{7});
+        assertEquals(7, instance.getClass().getField("value").get(instance));
+        assertEquals(1, instance.getClass().getField("value").get(factory.create(new Class[0], new Object[0])));
+        //not generated, AutoImplUtils falls back to reflection
+        assertNull(factory.create(new Class[]{long.class}, new Object[]{7L}));
+    }
+
+    @Test
+    public void factoriesWrapConstructorFailures() throws Exception {
+        AutoImplFactory<?> factory = loadRegistry(TestCompiler.compile(FIRST, SECOND), "a.AutoImplementRegistry").factories()[1];
+        assertNotNull(factory.create(new Class[]{String.class}, new Object[]{"name"}));
+        try {
+            factory.create(new Class[]{String.class}, new Object[]{""});
+            fail();
+        } catch (InvocationTargetException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+        try {
+            factory.create(new Class[]{String.class}, new Object[]{42});
+            fail();
+        } catch (ClassCastException e) {
+            //argument failures are not wrapped, they are not the constructor ones
+        }
+    }
+
+    @Test
+    public void registryNameCanBeSet() {
+        Compilation compilation = TestCompiler.compile(Collections.singletonList("-Aautoimplement.registry=app.Registry"), FIRST, SECOND);
+        assertThat(compilation).succeeded();
+        assertThat(compilation).generatedSourceFile("app.Registry");
+    }
+
+    static AutoImplRegistry loadRegistry(Compilation compilation, String name) throws Exception {
+        return (AutoImplRegistry) TestCompiler.newInstance(TestCompiler.load(compilation), name);
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplementprocessor;
+
+import com.google.testing.compile.Compilation;
+import com.steve.mvp.autoimplement.internal.Batch;
+
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.tools.JavaFileObject;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static org.junit.Assert.*;
+
+/**
+ * Created by Steve Tchatchouang
+ */
+
+public class BatchTest {
+
+    private static final JavaFileObject PRESENTER = TestCompiler.source("sample.BatchPresenter",
+            "package sample;",
+            "import com.steve.mvp.autoimplement.internal.AutoImplement;",
+            "import com.steve.mvp.autoimplement.internal.ImplementationOf;",
+            "import com.steve.mvp.autoimplementprocessor.BatchTest;",
+            "@AutoImplement",
+            "public abstract class BatchPresenter implements BatchTest.Events {",
+            "    @ImplementationOf(BatchTest.Events.class)",
+            "    protected BatchTest.Events events;",
+            "    public abstract void flushBatches();",
+            "    public abstract void closeBatches();",
+            "}");
+
+    public interface Events {
+        @Batch(value = "logAll", size = 3, maxDelayMillis = 0)
+        void log(String event);
+
+        void logAll(List<String> events);
+    }
+
+    public abstract static class Sink implements Events {
+        final List<List<String>> batches = new ArrayList<>();
+
+        @Override
+        public void log(String event) {
+            throw new AssertionError("batched");
+        }
+
+        @Override
+        public void logAll(List<String> events) {
+            batches.add(new ArrayList<>(events));
+        }
+    }
+
+    @Test
+    public void buffersCallsUntilFullOrFlushed() throws Exception {
+        Class<?> impl = TestCompiler.load(TestCompiler.compile(PRESENTER)).loadClass("sample.BatchPresenter_Impl");
+        Object presenter = impl.getConstructor().newInstance();
+        Sink sink = new Sink() {
+        };
+        Field field = impl.getSuperclass().getDeclaredField("events");
+        field.setAccessible(true);
+        field.set(presenter, sink);
+
+        Events events = (Events) presenter;
+        for (String event : Arrays.asList("a", "b", "c", "d")) {
+            events.log(event);
+        }
+        assertEquals(Collections.singletonList(Arrays.asList("a", "b", "c")), sink.batches);
+        impl.getMethod("flushBatches").invoke(presenter);
+        assertEquals(Arrays.asList("d"), sink.batches.get(1));
+
+        impl.getMethod("closeBatches").invoke(presenter);
+        events.log("e");
+        assertEquals(Arrays.asList("e"), sink.batches.get(2));
+    }
+
+    @Test
+    public void batchMethodMustTakeAList() {
+        JavaFileObject events = TestCompiler.source("sample.Wrong",
+                "package sample;",
+                "import com.steve.mvp.autoimplement.internal.*;",
+                "public interface Wrong {",
+                "    @Batch(\"logAll\") void log(String event);",
+                "    void logAll(String events);",
+                "}");
+        JavaFileObject presenter = TestCompiler.source("sample.WrongPresenter",
+                "package sample;",
+                "import com.steve.mvp.autoimplement.internal.*;",
+                "@AutoImplement",
+                "public abstract class WrongPresenter implements Wrong {",
+                "    @ImplementationOf(Wrong.class) protected Wrong wrong;",
+                "}");
+        Compilation compilation = TestCompiler.compile(events, presenter);
+        assertThat(compilation).hadErrorContaining("no method logAll(List<java.lang.String>) in sample.Wrong");
+    }
+}
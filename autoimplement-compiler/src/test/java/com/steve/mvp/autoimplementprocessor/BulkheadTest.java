@@ -0,0 +1,163 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplementprocessor;
+
+import com.steve.mvp.autoimplement.internal.Bulkhead;
+import com.steve.mvp.autoimplement.limit.AutoImplLimits;
+import com.steve.mvp.autoimplement.limit.BulkheadFullException;
+import com.steve.mvp.autoimplement.limit.CallLimiter;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created by Steve Tchatchouang
+ */
+
+public class BulkheadTest {
+
+    private static Class<?> impl;
+
+    public interface Api {
+        String load(String id);
+
+        @Bulkhead(maxConcurrent = 1)
+        String save(String value);
+    }
+
+    /**
+     * Blocks every call until released
+     */
+    public static class BlockingApi implements Api {
+        final CountDownLatch started;
+        final CountDownLatch release = new CountDownLatch(1);
+
+        BlockingApi(int calls) {
+            started = new CountDownLatch(calls);
+        }
+
+        @Override
+        public String load(String id) {
+            return block(id);
+        }
+
+        @Override
+        public String save(String value) {
+            return block(value);
+        }
+
+        private String block(String value) {
+            started.countDown();
+            try {
+                assertTrue(release.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+            return value;
+        }
+    }
+
+    @BeforeClass
+    public static void compile() throws Exception {
+        impl = TestCompiler.load(TestCompiler.compile(TestCompiler.source("sample.LimitedPresenter",
+                "package sample;",
+                "import com.steve.mvp.autoimplement.internal.AutoImplement;",
+                "import com.steve.mvp.autoimplement.internal.Bulkhead;",
+                "import com.steve.mvp.autoimplement.internal.ImplementationOf;",
+                "import com.steve.mvp.autoimplementprocessor.BulkheadTest;",
+                "@AutoImplement",
+                "public abstract class LimitedPresenter implements BulkheadTest.Api {",
+                "    @Bulkhead(maxConcurrent = 2)",
+                "    @ImplementationOf(BulkheadTest.Api.class) protected BulkheadTest.Api api;",
+                "}"))).loadClass("sample.LimitedPresenter_Impl");
+    }
+
+    @Test
+    public void delegateLimitIsSharedByInstances() throws Exception {
+        BlockingApi delegate = new BlockingApi(2);
+        Api first = build(delegate);
+        Api second = build(delegate);
+        CallLimiter limiter = AutoImplLimits.get(impl, "api");
+        assertEquals(2, limiter.getMaxConcurrent());
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<String>> loads = new ArrayList<>();
+            loads.add(executor.submit(() -> first.load("1")));
+            loads.add(executor.submit(() -> second.load("2")));
+            assertTrue(delegate.started.await(5, TimeUnit.SECONDS));
+            try {
+                build(delegate).load("3");
+                fail();
+            } catch (BulkheadFullException expected) {
+                assertEquals(2, limiter.getInFlight());
+            }
+            delegate.release.countDown();
+            assertEquals("1", loads.get(0).get(5, TimeUnit.SECONDS));
+            assertEquals("2", loads.get(1).get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(0, limiter.getInFlight());
+        assertEquals("4", first.load("4"));
+    }
+
+    @Test
+    public void methodLimitIsCheckedFirst() throws Exception {
+        BlockingApi delegate = new BlockingApi(1);
+        Api presenter = build(delegate);
+        CallLimiter methodLimiter = AutoImplLimits.get(impl, "save(java.lang.String)");
+        assertEquals(1, methodLimiter.getMaxConcurrent());
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> save = executor.submit(() -> presenter.save("1"));
+            assertTrue(delegate.started.await(5, TimeUnit.SECONDS));
+            try {
+                presenter.save("2");
+                fail();
+            } catch (BulkheadFullException expected) {
+                //rejected before taking a delegate slot
+                assertEquals(1, AutoImplLimits.get(impl, "api").getInFlight());
+            }
+            delegate.release.countDown();
+            assertEquals("1", save.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(0, methodLimiter.getInFlight());
+    }
+
+    private static Api build(Api delegate) throws Exception {
+        Object presenter = impl.getConstructor().newInstance();
+        Field field = impl.getSuperclass().getDeclaredField("api");
+        field.setAccessible(true);
+        field.set(presenter, delegate);
+        return (Api) presenter;
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplementprocessor;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import javax.tools.JavaFileObject;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created by Steve Tchatchouang
+ */
+
+public class CompositeTest {
+
+    private static ClassLoader loader;
+
+    public interface Search {
+        List<String> search(String query) throws IOException;
+
+        String name();
+
+        Object value(String key);
+
+        Collection<String> tags();
+    }
+
+    /**
+     * Answers query + its name, fails when it is down
+     */
+    public static class Backend implements Search {
+        private final String  name;
+        private final boolean down;
+
+        public Backend(String name, boolean down) {
+            this.name = name;
+            this.down = down;
+        }
+
+        @Override
+        public List<String> search(String query) throws IOException {
+            if (down) {
+                throw new IOException(name + " down");
+            }
+            return Collections.singletonList(query + name);
+        }
+
+        @Override
+        public String name() {
+            return down ? null : name;
+        }
+
+        @Override
+        public Object value(String key) {
+            return down ? null : key + name;
+        }
+
+        @Override
+        public Collection<String> tags() {
+            return Collections.singleton("tag" + name);
+        }
+    }
+
+    @BeforeClass
+    public static void compile() {
+        loader = TestCompiler.load(TestCompiler.compile(
+                presenter("FanOut", "@Composite"),
+                presenter("FirstSuccess", "@Composite(CompositePolicy.FIRST_SUCCESS)"),
+                presenter("Hedged", "@Composite(value = CompositePolicy.HEDGED, hedgeDelayMillis = 5)")));
+    }
+
+    @Test
+    public void fanOutMergesResults() throws Exception {
+        Search search = build("FanOut", new Backend("1", false), new Backend("2", false));
+        assertEquals(Arrays.asList("q1", "q2"), search.search("q"));
+        assertEquals("1", search.name());
+        assertEquals("2", build("FanOut", new Backend("1", true), new Backend("2", false)).name());
+    }
+
+    @Test
+    public void fanOutMergesByExactReturnType() throws Exception {
+        //Object is not list like, the first non null result wins
+        assertEquals("k2", build("FanOut", new Backend("1", true), new Backend("2", false)).value("k"));
+        assertEquals(Arrays.asList("tag1", "tag2"), build("FanOut", new Backend("1", false), new Backend("2", false)).tags());
+    }
+
+    @Test
+    public void fanOutFailsWhenOneFails() throws Exception {
+        try {
+            build("FanOut", new Backend("1", false), new Backend("2", true)).search("q");
+            fail();
+        } catch (IOException e) {
+            //declared, rethrown as is
+            assertEquals("2 down", e.getMessage());
+        }
+    }
+
+    @Test
+    public void firstSuccessSkipsFailedDelegates() throws Exception {
+        assertEquals(Collections.singletonList("q2"),
+                build("FirstSuccess", new Backend("1", true), new Backend("2", false)).search("q"));
+    }
+
+    @Test
+    public void hedgedFallsBackOnFailure() throws Exception {
+        assertEquals(Collections.singletonList("q2"),
+                build("Hedged", new Backend("1", true), new Backend("2", false)).search("q"));
+        assertEquals(Collections.singletonList("q1"),
+                build("Hedged", new Backend("1", false), new Backend("2", false)).search("q"));
+    }
+
+    private static JavaFileObject presenter(String name, String composite) {
+        return TestCompiler.source("sample." + name,
+                "package sample;",
+                "import com.steve.mvp.autoimplement.internal.AutoImplement;",
+                "import com.steve.mvp.autoimplement.internal.Composite;",
+                "import com.steve.mvp.autoimplement.internal.CompositePolicy;",
+                "import com.steve.mvp.autoimplement.internal.ImplementationOf;",
+                "import com.steve.mvp.autoimplementprocessor.CompositeTest;",
+                "@AutoImplement",
+                "public abstract class " + name + " implements CompositeTest.Search {",
+                "    " + composite,
+                "    @ImplementationOf(CompositeTest.Search.class) protected CompositeTest.Search primary;",
+                "    @ImplementationOf(CompositeTest.Search.class) protected CompositeTest.Search secondary;",
+                "}");
+    }
+
+    private static Search build(String name, Search primary, Search secondary) throws Exception {
+        Object presenter = TestCompiler.newInstance(loader, "sample." + name + "_Impl");
+        set(presenter, "primary", primary);
+        set(presenter, "secondary", secondary);
+        return (Search) presenter;
+    }
+
+    private static void set(Object presenter, String name, Search delegate) throws Exception {
+        Field field = presenter.getClass().getSuperclass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(presenter, delegate);
+    }
+}
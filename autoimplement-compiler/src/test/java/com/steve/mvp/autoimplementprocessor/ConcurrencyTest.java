@@ -0,0 +1,198 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplementprocessor;
+
+import com.google.testing.compile.Compilation;
+import com.steve.mvp.autoimplement.internal.ReadOnly;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.tools.JavaFileObject;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static org.junit.Assert.*;
+
+/**
+ * Created by Steve Tchatchouang
+ */
+
+public class ConcurrencyTest {
+    private static final int THREADS = 4;
+    private static final int CALLS   = 2000;
+
+    private static final Set<Counter> CREATED = Collections.synchronizedSet(new HashSet<Counter>());
+
+    private static ClassLoader loader;
+
+    public interface Counter {
+        @ReadOnly
+        int get();
+
+        void increment();
+    }
+
+    /**
+     * Loses increments when called concurrently
+     */
+    public static class UnsafeCounter implements Counter {
+        private int value;
+
+        @Override
+        public int get() {
+            return value;
+        }
+
+        @Override
+        public void increment() {
+            int value = this.value;
+            Thread.yield();
+            this.value = value + 1;
+        }
+    }
+
+    public static Counter create() {
+        Counter counter = new UnsafeCounter();
+        CREATED.add(counter);
+        return counter;
+    }
+
+    @BeforeClass
+    public static void compile() {
+        loader = TestCompiler.load(TestCompiler.compile(
+                presenter("Monitor", "concurrency = Concurrency.MONITOR"),
+                presenter("ReadWrite", "concurrency = Concurrency.READ_WRITE"),
+                presenter("PerThread", "concurrency = Concurrency.THREAD_LOCAL, factory = \"create\"")));
+    }
+
+    @Test
+    public void monitorSerializesCalls() throws Exception {
+        Counter counter = build("Monitor", new UnsafeCounter());
+        incrementConcurrently(counter);
+        assertEquals(THREADS * CALLS, counter.get());
+    }
+
+    @Test
+    public void readWriteSerializesWrites() throws Exception {
+        Counter counter = build("ReadWrite", new UnsafeCounter());
+        incrementConcurrently(counter);
+        assertEquals(THREADS * CALLS, counter.get());
+    }
+
+    @Test
+    public void readWriteRunsReadsConcurrently() throws Exception {
+        final CyclicBarrier readers = new CyclicBarrier(2);
+        final Counter counter = build("ReadWrite", new UnsafeCounter() {
+            @Override
+            public int get() {
+                try {
+                    //both readers are in the delegate at once
+                    readers.await(5, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    throw new AssertionError(e);
+                }
+                return super.get();
+            }
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Callable<Integer>> reads = new ArrayList<>();
+            reads.add(counter::get);
+            reads.add(counter::get);
+            for (Future<Integer> read : executor.invokeAll(reads)) {
+                assertEquals(0, (int) read.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void threadLocalCallsOneDelegatePerThread() throws Exception {
+        CREATED.clear();
+        final Counter counter = (Counter) TestCompiler.newInstance(loader, "sample.PerThread_Impl");
+        incrementConcurrently(counter);
+        assertEquals(THREADS, CREATED.size());
+        for (Counter created : CREATED) {
+            assertEquals(CALLS, created.get());
+        }
+    }
+
+    @Test
+    public void threadLocalNeedsAFactory() {
+        Compilation compilation = TestCompiler.compile(presenter("NoFactory", "concurrency = Concurrency.THREAD_LOCAL"));
+        assertThat(compilation).hadErrorContaining("counter needs a factory, it is created per thread");
+    }
+
+    private static JavaFileObject presenter(String name, String attributes) {
+        return TestCompiler.source("sample." + name,
+                "package sample;",
+                "import com.steve.mvp.autoimplement.internal.AutoImplement;",
+                "import com.steve.mvp.autoimplement.internal.Concurrency;",
+                "import com.steve.mvp.autoimplement.internal.ImplementationOf;",
+                "import com.steve.mvp.autoimplementprocessor.ConcurrencyTest;",
+                "@AutoImplement",
+                "public abstract class " + name + " implements ConcurrencyTest.Counter {",
+                "    @ImplementationOf(value = ConcurrencyTest.Counter.class, " + attributes + ")",
+                "    protected volatile ConcurrencyTest.Counter counter;",
+                "    protected ConcurrencyTest.Counter create() {",
+                "        return ConcurrencyTest.create();",
+                "    }",
+                "}");
+    }
+
+    private static Counter build(String name, Counter delegate) throws Exception {
+        Object presenter = TestCompiler.newInstance(loader, "sample." + name + "_Impl");
+        Field field = presenter.getClass().getSuperclass().getDeclaredField("counter");
+        field.setAccessible(true);
+        field.set(presenter, delegate);
+        return (Counter) presenter;
+    }
+
+    private static void incrementConcurrently(final Counter counter) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                tasks.add(() -> {
+                    for (int call = 0; call < CALLS; call++) {
+                        counter.increment();
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> task : executor.invokeAll(tasks)) {
+                task.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplementprocessor;
+
+import com.google.testing.compile.Compilation;
+import com.steve.mvp.autoimplement.internal.Coalesce;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import javax.tools.JavaFileObject;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static org.junit.Assert.*;
+
+/**
+ * Created by Steve Tchatchouang
+ */
+
+public class ConfinedTest {
+    //tasks posted to the confined thread, run by the test
+    private static final List<Runnable> TASKS = new ArrayList<>();
+
+    private static ClassLoader loader;
+
+    public interface Loader {
+        @Coalesce
+        String load(String key);
+    }
+
+    public interface View {
+        void showText(String text);
+
+        @Coalesce
+        void showProgress(int progress);
+
+        String getText();
+    }
+
+    /**
+     * Records the calls it gets
+     */
+    public static class RecordingView implements View {
+        final List<String> calls = new ArrayList<>();
+
+        @Override
+        public void showText(String text) {
+            calls.add(text);
+        }
+
+        @Override
+        public void showProgress(int progress) {
+            calls.add(progress + "%");
+        }
+
+        @Override
+        public String getText() {
+            return "text";
+        }
+    }
+
+    public static Executor executor() {
+        return TASKS::add;
+    }
+
+    @BeforeClass
+    public static void compile() {
+        loader = TestCompiler.load(TestCompiler.compile(TestCompiler.source("sample.ConfinedPresenter",
+                "package sample;",
+                "import com.steve.mvp.autoimplement.internal.AutoImplement;",
+                "import com.steve.mvp.autoimplement.internal.Confined;",
+                "import com.steve.mvp.autoimplement.internal.ImplementationOf;",
+                "import com.steve.mvp.autoimplementprocessor.ConfinedTest;",
+                "import java.util.concurrent.Executor;",
+                "@AutoImplement",
+                "public abstract class ConfinedPresenter implements ConfinedTest.View {",
+                "    @Confined(\"ui\")",
+                "    @ImplementationOf(ConfinedTest.View.class) protected ConfinedTest.View view;",
+                "    protected Executor ui() {",
+                "        return ConfinedTest.executor();",
+                "    }",
+                "}")));
+    }
+
+    @Before
+    public void clearTasks() {
+        TASKS.clear();
+    }
+
+    @Test
+    public void voidMethodsRunOnTheExecutorInOrder() throws Exception {
+        RecordingView view = new RecordingView();
+        View presenter = build(view);
+        presenter.showText("first");
+        presenter.showText("second");
+        assertTrue(view.calls.isEmpty());
+        assertEquals(2, TASKS.size());
+        runTasks();
+        assertEquals(Arrays.asList("first", "second"), view.calls);
+        //called directly
+        assertEquals("text", presenter.getText());
+        assertTrue(TASKS.isEmpty());
+    }
+
+    @Test
+    public void pendingCoalescedCallsCollapseIntoTheLatest() throws Exception {
+        RecordingView view = new RecordingView();
+        View presenter = build(view);
+        presenter.showProgress(10);
+        presenter.showText("text");
+        presenter.showProgress(20);
+        presenter.showProgress(30);
+        assertEquals(2, TASKS.size());
+        runTasks();
+        assertEquals(Arrays.asList("30%", "text"), view.calls);
+
+        presenter.showProgress(40);
+        runTasks();
+        assertEquals(Arrays.asList("30%", "text", "40%"), view.calls);
+    }
+
+    @Test
+    public void coalesceIsIgnoredForUnconfinedDelegates() throws Exception {
+        ClassLoader direct = TestCompiler.load(TestCompiler.compile(TestCompiler.source("sample.DirectPresenter",
+                "package sample;",
+                "import com.steve.mvp.autoimplement.internal.AutoImplement;",
+                "import com.steve.mvp.autoimplement.internal.ImplementationOf;",
+                "import com.steve.mvp.autoimplementprocessor.ConfinedTest;",
+                "@AutoImplement",
+                "public abstract class DirectPresenter implements ConfinedTest.View {",
+                "    @ImplementationOf(ConfinedTest.View.class) protected ConfinedTest.View view;",
+                "}")));
+        Object presenter = TestCompiler.newInstance(direct, "sample.DirectPresenter_Impl");
+        Field field = presenter.getClass().getSuperclass().getDeclaredField("view");
+        field.setAccessible(true);
+        RecordingView view = new RecordingView();
+        field.set(presenter, view);
+        ((View) presenter).showProgress(10);
+        ((View) presenter).showProgress(20);
+        assertTrue(TASKS.isEmpty());
+        assertEquals(Arrays.asList("10%", "20%"), view.calls);
+    }
+
+    @Test
+    public void coalesceNeedsAVoidMethodOfAConfinedDelegate() {
+        JavaFileObject presenter = TestCompiler.source("sample.Wrong",
+                "package sample;",
+                "import com.steve.mvp.autoimplement.internal.AutoImplement;",
+                "import com.steve.mvp.autoimplement.internal.Confined;",
+                "import com.steve.mvp.autoimplement.internal.ImplementationOf;",
+                "import com.steve.mvp.autoimplementprocessor.ConfinedTest;",
+                "import java.util.concurrent.Executor;",
+                "@AutoImplement",
+                "public abstract class Wrong implements ConfinedTest.Loader {",
+                "    @Confined(\"ui\")",
+                "    @ImplementationOf(ConfinedTest.Loader.class) protected ConfinedTest.Loader loader;",
+                "    protected Executor ui() {",
+                "        return ConfinedTest.executor();",
+                "    }",
+                "}");
+        Compilation compilation = TestCompiler.compile(presenter);
+        assertThat(compilation).hadErrorContaining("@Coalesce needs a void method of a @Confined delegate");
+    }
+
+    private static void runTasks() {
+        List<Runnable> pending = new ArrayList<>(TASKS);
+        TASKS.clear();
+        for (Runnable task : pending) {
+            task.run();
+        }
+    }
+
+    private static View build(View delegate) throws Exception {
+        Object presenter = TestCompiler.newInstance(loader, "sample.ConfinedPresenter_Impl");
+        Field field = presenter.getClass().getSuperclass().getDeclaredField("view");
+        field.setAccessible(true);
+        field.set(presenter, delegate);
+        return (View) presenter;
+    }
+}
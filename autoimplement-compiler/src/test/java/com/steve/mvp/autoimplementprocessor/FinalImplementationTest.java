@@ -0,0 +1,81 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplementprocessor;
+
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import javax.tools.JavaFileObject;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created by Steve Tchatchouang
+ */
+
+public class FinalImplementationTest {
+
+    private static final JavaFileObject API = TestCompiler.source("sample.Api",
+            "package sample;",
+            "public interface Api {",
+            "    String name();",
+            "    void run(int times);",
+            "}");
+
+    @Test
+    public void finalImplGeneratesFinalClassAndMethods() throws Exception {
+        Class<?> impl = compile("finalImpl = true");
+        assertTrue(Modifier.isFinal(impl.getModifiers()));
+        assertTrue(Modifier.isFinal(impl.getDeclaredMethod("swapApi", impl.getSuperclass().getDeclaredField("api").getType()).getModifiers()));
+        assertTrue(Modifier.isFinal(impl.getDeclaredMethod("nameAsync").getModifiers()));
+        for (Method method : impl.getDeclaredMethods()) {
+            if (!method.isSynthetic()) {
+                assertTrue(method.getName(), Modifier.isFinal(method.getModifiers()));
+            }
+        }
+    }
+
+    @Test
+    public void implementationsCanBeExtendedByDefault() throws Exception {
+        Class<?> impl = compile("");
+        assertFalse(Modifier.isFinal(impl.getModifiers()));
+        for (Method method : impl.getDeclaredMethods()) {
+            assertFalse(method.getName(), Modifier.isFinal(method.getModifiers()));
+        }
+    }
+
+    /**
+     * @param attributes : of the @AutoImplement annotation
+     * @return the generated implementation, with swappable and async methods
+     */
+    private static Class<?> compile(String attributes) throws Exception {
+        JavaFileObject presenter = TestCompiler.source("sample.Presenter",
+                "package sample;",
+                "import com.steve.mvp.autoimplement.internal.Async;",
+                "import com.steve.mvp.autoimplement.internal.AutoImplement;",
+                "import com.steve.mvp.autoimplement.internal.ImplementationOf;",
+                "@AutoImplement(" + attributes + ")",
+                "public abstract class Presenter implements Api {",
+                "    @Async",
+                "    @ImplementationOf(value = Api.class, swappable = true)",
+                "    protected volatile Api api;",
+                "}");
+        return TestCompiler.load(TestCompiler.compile(API, presenter)).loadClass("sample.Presenter_Impl");
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplementprocessor;
+
+import com.google.testing.compile.Compilation;
+
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.tools.JavaFileObject;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static org.junit.Assert.*;
+
+/**
+ * Created by Steve Tchatchouang
+ */
+
+public class GenericDelegationTest {
+
+    private static final JavaFileObject REPOSITORY = TestCompiler.source("sample.Repository",
+            "package sample;",
+            "import java.util.List;",
+            "public interface Repository<T> {",
+            "    T find(String id);",
+            "    void save(T item);",
+            "    List<T> all();",
+            "    <R extends Comparable<R>> R map(java.util.function.Function<? super T, R> mapper);",
+            "    interface Users extends Repository<String> {",
+            "        int count();",
+            "    }",
+            "}");
+    private static final JavaFileObject PRESENTER = TestCompiler.source("sample.Presenter",
+            "package sample;",
+            "import com.steve.mvp.autoimplement.internal.AutoImplement;",
+            "import com.steve.mvp.autoimplement.internal.ImplementationOf;",
+            "@AutoImplement",
+            "public abstract class Presenter implements Repository<Integer> {",
+            "    @ImplementationOf(Repository.class) protected Repository<Integer> repository;",
+            "}");
+    private static final JavaFileObject USERS = TestCompiler.source("sample.UsersPresenter",
+            "package sample;",
+            "import com.steve.mvp.autoimplement.internal.AutoImplement;",
+            "import com.steve.mvp.autoimplement.internal.ImplementationOf;",
+            "@AutoImplement",
+            "public abstract class UsersPresenter implements Repository.Users {",
+            "    @ImplementationOf(Repository.Users.class) protected Repository.Users users;",
+            "}");
+
+    @Test
+    public void signaturesUseTheFieldTypeArguments() throws Exception {
+        Class<?> impl = TestCompiler.load(TestCompiler.compile(REPOSITORY, PRESENTER)).loadClass("sample.Presenter_Impl");
+        assertEquals(Integer.class, declared(impl, "find").getReturnType());
+        assertEquals(Integer.class, declared(impl, "save").getParameterTypes()[0]);
+        assertEquals("java.util.List<java.lang.Integer>", declared(impl, "all").getGenericReturnType().getTypeName());
+        assertEquals(1, declared(impl, "map").getTypeParameters().length);
+    }
+
+    @Test
+    public void superInterfacesTypeArgumentsAreResolved() throws Exception {
+        Class<?> impl = TestCompiler.load(TestCompiler.compile(REPOSITORY, USERS)).loadClass("sample.UsersPresenter_Impl");
+        assertEquals(String.class, declared(impl, "find").getReturnType());
+        assertEquals(String.class, declared(impl, "save").getParameterTypes()[0]);
+        assertEquals(int.class, declared(impl, "count").getReturnType());
+    }
+
+    @Test
+    public void generatedMethodsDoNotCast() {
+        Compilation compilation = TestCompiler.compile(REPOSITORY, PRESENTER, USERS);
+        assertThat(compilation).succeeded();
+        assertThat(compilation).generatedSourceFile("sample.Presenter_Impl").contentsAsUtf8String().doesNotContain("(Integer)");
+        assertThat(compilation).generatedSourceFile("sample.UsersPresenter_Impl").contentsAsUtf8String().doesNotContain("(String)");
+    }
+
+    @Test
+    public void callsReachTheDelegate() throws Exception {
+        Class<?> impl = TestCompiler.load(TestCompiler.compile(REPOSITORY, PRESENTER)).loadClass("sample.Presenter_Impl");
+        final List<Object> saved = new ArrayList<>();
+        Class<?> repository = impl.getClassLoader().loadClass("sample.Repository");
+        Object delegate = Proxy.newProxyInstance(impl.getClassLoader(), new Class[]{repository}, (proxy, method, args) -> {
+            if (method.getName().equals("save")) {
+                saved.add(args[0]);
+                return null;
+            }
+            return method.getName().equals("find") ? Integer.valueOf((String) args[0]) : null;
+        });
+        Object presenter = impl.getConstructor().newInstance();
+        Field field = impl.getSuperclass().getDeclaredField("repository");
+        field.setAccessible(true);
+        field.set(presenter, delegate);
+
+        assertEquals(42, declared(impl, "find").invoke(presenter, "42"));
+        declared(impl, "save").invoke(presenter, 7);
+        assertEquals(7, saved.get(0));
+    }
+
+    /**
+     * @return the generated method named name, not a bridge
+     */
+    private static Method declared(Class<?> impl, String name) {
+        for (Method method : impl.getDeclaredMethods()) {
+            if (method.getName().equals(name) && !method.isBridge()) {
+                return method;
+            }
+        }
+        throw new AssertionError(name + " not generated");
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplementprocessor;
+
+import com.google.common.io.Resources;
+import com.google.testing.compile.Compilation;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.tools.JavaFileObject;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static com.google.testing.compile.Compiler.javac;
+import static org.junit.Assert.*;
+
+/**
+ * Created by Steve Tchatchouang
+ */
+
+public class IncrementalProcessingTest {
+
+    private static final JavaFileObject API = TestCompiler.source("sample.Api",
+            "package sample;",
+            "public interface Api {",
+            "    interface Base { String base(String value); }",
+            "    interface Left extends Base { int left(); }",
+            "    interface Right extends Base { long right(long value); }",
+            "    interface Diamond extends Left, Right { void diamond(); }",
+            "}");
+    private static final JavaFileObject FIRST = TestCompiler.source("sample.First",
+            "package sample;",
+            "import com.steve.mvp.autoimplement.internal.AutoImplement;",
+            "import com.steve.mvp.autoimplement.internal.ImplementationOf;",
+            "@AutoImplement(warmUpPriority = 1)",
+            "public abstract class First implements Api.Diamond {",
+            "    @ImplementationOf(Api.Diamond.class)",
+            "    protected Api.Diamond diamond;",
+            "}");
+    private static final JavaFileObject SECOND = TestCompiler.source("sample.Second",
+            "package sample;",
+            "import com.steve.mvp.autoimplement.internal.AutoImplement;",
+            "import com.steve.mvp.autoimplement.internal.ImplementationOf;",
+            "@AutoImplement",
+            "public abstract class Second implements Api.Right, Api.Left {",
+            "    @ImplementationOf(Api.Right.class)",
+            "    protected Api.Right right;",
+            "    @ImplementationOf(Api.Left.class)",
+            "    protected Api.Left left;",
+            "}");
+
+    @Test
+    public void registryDoesNotDependOnTheProcessorOrder() {
+        Compilation compilation = javac()
+                .withProcessors(new AutoImplementProcessor(), new ImplementationOfProcessor(), new AutoImplRegistryProcessor())
+                .compile(API, FIRST, SECOND);
+        assertThat(compilation).succeeded();
+        assertThat(compilation).generatedSourceFile("sample.AutoImplementRegistry").contentsAsUtf8String().contains("First_Impl.Factory");
+        assertThat(compilation).generatedSourceFile("sample.AutoImplementRegistry").contentsAsUtf8String().contains("Second_Impl.Factory");
+    }
+
+    @Test
+    public void outputDoesNotDependOnTheSourceOrder() throws Exception {
+        List<String> forward = generatedSources(TestCompiler.compile(API, FIRST, SECOND));
+        List<String> backward = generatedSources(TestCompiler.compile(SECOND, FIRST, API));
+        assertEquals(3, forward.size());
+        assertEquals(forward, backward);
+    }
+
+    @Test
+    public void incrementalMetadataDeclaresEveryProcessor() throws Exception {
+        List<String> services = trimmedLines("META-INF/services/javax.annotation.processing.Processor");
+        List<String> incremental = trimmedLines("META-INF/gradle/incremental.annotation.processors");
+        assertTrue(incremental.contains(ImplementationOfProcessor.class.getName() + ",isolating"));
+        assertTrue(incremental.contains(AutoImplementProcessor.class.getName() + ",isolating"));
+        assertTrue(incremental.contains(AutoImplRegistryProcessor.class.getName() + ",aggregating"));
+        for (String line : incremental) {
+            if (!line.isEmpty()) {
+                assertTrue(line, services.contains(line.substring(0, line.indexOf(','))));
+            }
+        }
+    }
+
+    /**
+     * @return lines of a resource without their whitespace, whatever the line endings
+     */
+    private static List<String> trimmedLines(String resource) throws Exception {
+        List<String> lines = new ArrayList<>();
+        for (String line : Resources.readLines(Resources.getResource(resource), StandardCharsets.UTF_8)) {
+            lines.add(line.trim());
+        }
+        return lines;
+    }
+
+    /**
+     * @return contents of the generated sources, by name
+     */
+    private static List<String> generatedSources(Compilation compilation) throws Exception {
+        assertThat(compilation).succeeded();
+        List<JavaFileObject> files = new ArrayList<>(compilation.generatedSourceFiles());
+        files.sort((first, second) -> first.getName().compareTo(second.getName()));
+        List<String> sources = new ArrayList<>();
+        for (JavaFileObject file : files) {
+            sources.add(file.getName() + "\n" + file.getCharContent(false));
+        }
+        return sources;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplementprocessor;
+
+import com.google.testing.compile.Compilation;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.tools.JavaFileObject;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static com.google.testing.compile.Compiler.javac;
+import static org.junit.Assert.*;
+
+/**
+ * Created by Steve Tchatchouang
+ */
+
+public class InterfaceResolverTest {
+
+    private static final JavaFileObject API = TestCompiler.source("sample.Api",
+            "package sample;",
+            "public interface Api {",
+            "    interface Base { void base(); }",
+            "    interface Left extends Base { void left(); }",
+            "    interface Right extends Base { void right(); }",
+            "    interface Diamond extends Left, Right { void diamond(); }",
+            "}");
+    private static final JavaFileObject PRESENTERS = TestCompiler.source("sample.Presenters",
+            "package sample;",
+            "import com.steve.mvp.autoimplement.internal.AutoImplement;",
+            "import com.steve.mvp.autoimplement.internal.ImplementationOf;",
+            "public class Presenters {",
+            "    @AutoImplement",
+            "    public abstract static class First implements Api.Diamond {",
+            "        @ImplementationOf(Api.Diamond.class) protected Api.Diamond diamond;",
+            "    }",
+            "    @AutoImplement",
+            "    public abstract static class Second implements Api.Diamond {",
+            "        @ImplementationOf(Api.Diamond.class) protected Api.Diamond diamond;",
+            "    }",
+            "}");
+
+    @Test
+    public void visitsEachInterfaceOnce() {
+        final List<String> methods = new ArrayList<>();
+        final int[] counts = new int[3];
+        Compilation compilation = javac().withProcessors(new AbstractProcessor() {
+            @Override
+            public Set<String> getSupportedAnnotationTypes() {
+                return Collections.singleton("*");
+            }
+
+            @Override
+            public SourceVersion getSupportedSourceVersion() {
+                return SourceVersion.latestSupported();
+            }
+
+            @Override
+            public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+                if (roundEnv.processingOver()) {
+                    return false;
+                }
+                InterfaceResolver resolver = new InterfaceResolver(processingEnv.getTypeUtils());
+                TypeElement diamond = processingEnv.getElementUtils().getTypeElement("sample.Api.Diamond");
+                for (ExecutableElement method : resolver.getAllMethods(diamond)) {
+                    methods.add(method.getSimpleName().toString());
+                }
+                assertSame(resolver.getAllMethods(diamond), resolver.getAllMethods(diamond));
+                counts[0] = resolver.getResolved();
+                counts[1] = resolver.getMisses();
+                counts[2] = resolver.getHits();
+                resolver.clear();
+                assertEquals(0, resolver.getResolved());
+                return false;
+            }
+        }).compile(API);
+        assertThat(compilation).succeeded();
+        assertEquals(Arrays.asList("diamond", "left", "right", "base"), methods);
+        assertArrayEquals(new int[]{4, 1, 2}, counts);
+    }
+
+    @Test
+    public void statsCountSuperInterfaces() {
+        Compilation compilation = TestCompiler.compile(
+                Collections.singletonList("-A" + AutoImplementProcessor.OPTION_STATS + "=true"), API, PRESENTERS);
+        assertThat(compilation).succeeded();
+        assertThat(compilation).hadNoteContaining("4 interfaces resolved, 1 method lists built, 1 cache hits");
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplementprocessor;
+
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.tools.JavaFileObject;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created by Steve Tchatchouang
+ */
+
+public class LazyDelegateTest {
+
+    private static final JavaFileObject PRESENTER = TestCompiler.source("sample.Presenter",
+            "package sample;",
+            "import com.steve.mvp.autoimplement.internal.AutoImplement;",
+            "import com.steve.mvp.autoimplement.internal.ImplementationOf;",
+            "import com.steve.mvp.autoimplementprocessor.LazyDelegateTest;",
+            "@AutoImplement",
+            "public abstract class Presenter implements LazyDelegateTest.Api {",
+            "    @ImplementationOf(value = LazyDelegateTest.Api.class, factory = \"create\", swappable = true)",
+            "    protected volatile LazyDelegateTest.Api api;",
+            "    protected LazyDelegateTest.Api create() {",
+            "        return LazyDelegateTest.create();",
+            "    }",
+            "}");
+
+    private static final AtomicInteger CREATED = new AtomicInteger();
+    private static volatile CountDownLatch factoryStarted;
+    private static volatile CountDownLatch factoryReleased;
+
+    private static Class<?> impl;
+
+    @BeforeClass
+    public static void compile() throws Exception {
+        impl = TestCompiler.load(TestCompiler.compile(PRESENTER)).loadClass("sample.Presenter_Impl");
+    }
+
+    @After
+    public void resetFactory() {
+        CREATED.set(0);
+        factoryStarted = null;
+        factoryReleased = null;
+    }
+
+    public interface Api {
+        String name();
+    }
+
+    public static Api create() {
+        final int id = CREATED.incrementAndGet();
+        if (factoryStarted != null) {
+            factoryStarted.countDown();
+            try {
+                assertTrue(factoryReleased.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        }
+        return () -> "created" + id;
+    }
+
+    @Test
+    public void createsTheDelegateOnce() throws Exception {
+        final Api presenter = (Api) impl.getConstructor().newInstance();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<String>> calls = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                calls.add(presenter::name);
+            }
+            for (Future<String> name : executor.invokeAll(calls)) {
+                assertEquals("created1", name.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, CREATED.get());
+    }
+
+    @Test
+    public void delegateSwappedDuringCreationIsKept() throws Exception {
+        final Api presenter = (Api) impl.getConstructor().newInstance();
+        factoryStarted = new CountDownLatch(1);
+        factoryReleased = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> name = executor.submit(presenter::name);
+            assertTrue(factoryStarted.await(5, TimeUnit.SECONDS));
+            Method swap = impl.getMethod("swapApi", Api.class);
+            assertNull(swap.invoke(presenter, (Api) () -> "swapped"));
+            factoryReleased.countDown();
+
+            assertEquals("swapped", name.get(5, TimeUnit.SECONDS));
+            assertEquals("swapped", presenter.name());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void creationDoesNotLockTheInstance() throws Exception {
+        final Api presenter = (Api) impl.getConstructor().newInstance();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            synchronized (presenter) {
+                assertEquals("created1", executor.submit(presenter::name).get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplementprocessor;
+
+import com.steve.mvp.autoimplement.cache.AutoImplCaches;
+import com.steve.mvp.autoimplement.cache.CacheStats;
+import com.steve.mvp.autoimplement.internal.Memoize;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.tools.JavaFileObject;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created by Steve Tchatchouang
+ */
+
+public class MemoizeTest {
+
+    private static final JavaFileObject PRESENTER = TestCompiler.source("sample.MemoPresenter",
+            "package sample;",
+            "import com.steve.mvp.autoimplement.internal.AutoImplement;",
+            "import com.steve.mvp.autoimplement.internal.ImplementationOf;",
+            "import com.steve.mvp.autoimplementprocessor.MemoizeTest;",
+            "@AutoImplement",
+            "public abstract class MemoPresenter implements MemoizeTest.Api {",
+            "    @ImplementationOf(MemoizeTest.Api.class)",
+            "    protected MemoizeTest.Api api;",
+            "}");
+
+    public interface Api {
+        @Memoize
+        String find(String id, int version);
+
+        @Memoize
+        String missing();
+
+        @Memoize
+        int sum(int[] values);
+
+        String uncached(String id);
+    }
+
+    private static Class<?> impl;
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private Api presenter;
+
+    @BeforeClass
+    public static void compile() throws Exception {
+        impl = TestCompiler.load(TestCompiler.compile(PRESENTER)).loadClass("sample.MemoPresenter_Impl");
+    }
+
+    @Before
+    public void build() throws Exception {
+        presenter = (Api) impl.getConstructor().newInstance();
+        Field field = impl.getSuperclass().getDeclaredField("api");
+        field.setAccessible(true);
+        field.set(presenter, new Api() {
+            @Override
+            public String find(String id, int version) {
+                calls.incrementAndGet();
+                return id + version;
+            }
+
+            @Override
+            public String missing() {
+                calls.incrementAndGet();
+                return null;
+            }
+
+            @Override
+            public int sum(int[] values) {
+                calls.incrementAndGet();
+                int sum = 0;
+                for (int value : values) {
+                    sum += value;
+                }
+                return sum;
+            }
+
+            @Override
+            public String uncached(String id) {
+                calls.incrementAndGet();
+                return id;
+            }
+        });
+    }
+
+    @Test
+    public void cachesByArguments() {
+        assertEquals("a1", presenter.find("a", 1));
+        assertEquals("a1", presenter.find("a", 1));
+        assertEquals("a2", presenter.find("a", 2));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void cachesNullResults() {
+        assertNull(presenter.missing());
+        assertNull(presenter.missing());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void arraysAreComparedByContent() {
+        assertEquals(3, presenter.sum(new int[]{1, 2}));
+        assertEquals(3, presenter.sum(new int[]{1, 2}));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void onlyAnnotatedMethodsAreCached() {
+        presenter.uncached("a");
+        presenter.uncached("a");
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void statsAreRegistered() {
+        presenter.find("b", 1);
+        presenter.find("b", 1);
+        CacheStats stats = null;
+        for (CacheStats candidate : AutoImplCaches.getAll()) {
+            if (candidate.getOwner().equals(presenter.getClass().getName())
+                    && candidate.getMethod().equals("find(java.lang.String,int)")) {
+                stats = candidate;
+            }
+        }
+        assertNotNull(stats);
+        assertTrue(stats.getHits() >= 1);
+        assertTrue(stats.getMisses() >= 1);
+    }
+}
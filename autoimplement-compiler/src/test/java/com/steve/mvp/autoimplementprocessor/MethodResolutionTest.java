@@ -0,0 +1,134 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplementprocessor;
+
+import com.google.testing.compile.Compilation;
+
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.tools.JavaFileObject;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static org.junit.Assert.*;
+
+/**
+ * Created by Steve Tchatchouang
+ */
+
+public class MethodResolutionTest {
+
+    private static final JavaFileObject API = TestCompiler.source("sample.Api",
+            "package sample;",
+            "public interface Api {",
+            "    interface Base { String base(); default String named() { return \"default\"; } }",
+            "    interface Left extends Base { String left(); }",
+            "    interface Right extends Base { String right(); String base(); }",
+            "    interface Other { String left(); String other(); }",
+            "}");
+    private static final JavaFileObject PRESENTER = TestCompiler.source("sample.Presenter",
+            "package sample;",
+            "import com.steve.mvp.autoimplement.internal.AutoImplement;",
+            "import com.steve.mvp.autoimplement.internal.ImplementationOf;",
+            "@AutoImplement",
+            "public abstract class Presenter implements Api.Left, Api.Right, Api.Other {",
+            "    @ImplementationOf(Api.Left.class) protected Api.Left first;",
+            "    @ImplementationOf(Api.Right.class) protected Api.Right second;",
+            "    @ImplementationOf(Api.Other.class) protected Api.Other third;",
+            "    @Override public String right() { return \"concrete\"; }",
+            "}");
+
+    @Test
+    public void generatesOnlyAbstractMethodsOnce() throws Exception {
+        Class<?> impl = TestCompiler.load(TestCompiler.compile(API, PRESENTER)).loadClass("sample.Presenter_Impl");
+        List<String> names = new ArrayList<>();
+        for (Method method : impl.getDeclaredMethods()) {
+            if (!method.isSynthetic() && !Modifier.isStatic(method.getModifiers())) {
+                names.add(method.getName());
+            }
+        }
+        Collections.sort(names);
+        //right is implemented, named is a default method, base and left are inherited twice
+        assertEquals(Arrays.asList("base", "left", "other"), names);
+    }
+
+    @Test
+    public void firstFieldDeclaringTheMethodGetsTheCall() {
+        Compilation compilation = TestCompiler.compile(API, PRESENTER);
+        assertThat(compilation).generatedSourceFile("sample.Presenter_Impl").contentsAsUtf8String().contains("first.left()");
+        assertThat(compilation).generatedSourceFile("sample.Presenter_Impl").contentsAsUtf8String().contains("first.base()");
+        assertThat(compilation).generatedSourceFile("sample.Presenter_Impl").contentsAsUtf8String().contains("third.other()");
+    }
+
+    @Test
+    public void covariantDiamondGeneratesTheMostSpecificDeclaration() throws Exception {
+        JavaFileObject diamond = TestCompiler.source("sample.Covariant",
+                "package sample;",
+                "public interface Covariant {",
+                "    interface Left { Object get(); }",
+                "    interface Right { String get(); }",
+                "    interface Diamond extends Left, Right { }",
+                "}");
+        JavaFileObject presenter = TestCompiler.source("sample.DiamondPresenter",
+                "package sample;",
+                "import com.steve.mvp.autoimplement.internal.AutoImplement;",
+                "import com.steve.mvp.autoimplement.internal.ImplementationOf;",
+                "@AutoImplement",
+                "public abstract class DiamondPresenter implements Covariant.Diamond {",
+                "    @ImplementationOf(Covariant.Diamond.class) protected Covariant.Diamond diamond;",
+                "}");
+        Class<?> impl = TestCompiler.load(TestCompiler.compile(diamond, presenter)).loadClass("sample.DiamondPresenter_Impl");
+        assertEquals(String.class, impl.getDeclaredMethod("get").getReturnType());
+    }
+
+    @Test
+    public void covariantDeclarationOfAnotherFieldGetsTheCall() {
+        JavaFileObject diamond = TestCompiler.source("sample.Covariant",
+                "package sample;",
+                "public interface Covariant {",
+                "    interface Left { Object get(); }",
+                "    interface Right { String get(); }",
+                "}");
+        JavaFileObject presenter = TestCompiler.source("sample.SplitPresenter",
+                "package sample;",
+                "import com.steve.mvp.autoimplement.internal.AutoImplement;",
+                "import com.steve.mvp.autoimplement.internal.ImplementationOf;",
+                "@AutoImplement",
+                "public abstract class SplitPresenter implements Covariant.Left, Covariant.Right {",
+                "    @ImplementationOf(Covariant.Left.class) protected Covariant.Left left;",
+                "    @ImplementationOf(Covariant.Right.class) protected Covariant.Right right;",
+                "}");
+        Compilation compilation = TestCompiler.compile(diamond, presenter);
+        assertThat(compilation).succeeded();
+        assertThat(compilation).generatedSourceFile("sample.SplitPresenter_Impl").contentsAsUtf8String().contains("right.get()");
+    }
+
+    @Test
+    public void statsReportSavedMethods() {
+        Compilation compilation = TestCompiler.compile(
+                Collections.singletonList("-A" + AutoImplementProcessor.OPTION_STATS + "=true"), API, PRESENTER);
+        assertThat(compilation).succeeded();
+        assertThat(compilation).hadNoteContaining(
+                "Presenter_Impl: 3 methods generated, 6 saved (1 already implemented, 2 default or static, 3 duplicate)");
+    }
+}
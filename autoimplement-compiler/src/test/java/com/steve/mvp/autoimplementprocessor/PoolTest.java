@@ -0,0 +1,182 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplementprocessor;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static org.junit.Assert.*;
+
+/**
+ * Created by Steve Tchatchouang
+ */
+
+public class PoolTest {
+    private static final AtomicInteger CREATED = new AtomicInteger();
+
+    private static ClassLoader loader;
+
+    public interface View {
+        String show(String text);
+    }
+
+    /**
+     * Remembers the last text shown
+     */
+    public static class CountingView implements View {
+        private final int id = CREATED.incrementAndGet();
+        private String last;
+
+        @Override
+        public String show(String text) {
+            String shown = id + ":" + text + (last == null ? "" : "<" + last);
+            last = text;
+            return shown;
+        }
+    }
+
+    public static View create() {
+        return new CountingView();
+    }
+
+    @BeforeClass
+    public static void compile() {
+        loader = TestCompiler.load(TestCompiler.compile(
+                TestCompiler.source("sample.PooledPresenter",
+                        "package sample;",
+                        "import com.steve.mvp.autoimplement.internal.AutoImplement;",
+                        "import com.steve.mvp.autoimplement.internal.ImplementationOf;",
+                        "import com.steve.mvp.autoimplementprocessor.PoolTest;",
+                        "@AutoImplement(pooled = true, poolSize = 1)",
+                        "public abstract class PooledPresenter implements PoolTest.View {",
+                        "    @ImplementationOf(PoolTest.View.class) protected PoolTest.View view;",
+                        "    protected String title;",
+                        "}"),
+                TestCompiler.source("sample.PerThreadPresenter",
+                        "package sample;",
+                        "import com.steve.mvp.autoimplement.internal.AutoImplement;",
+                        "import com.steve.mvp.autoimplement.internal.Concurrency;",
+                        "import com.steve.mvp.autoimplement.internal.ImplementationOf;",
+                        "import com.steve.mvp.autoimplementprocessor.PoolTest;",
+                        "@AutoImplement(pooled = true, poolSize = 1)",
+                        "public abstract class PerThreadPresenter implements PoolTest.View {",
+                        "    @ImplementationOf(value = PoolTest.View.class, concurrency = Concurrency.THREAD_LOCAL,",
+                        "            factory = \"create\")",
+                        "    protected PoolTest.View view;",
+                        "    protected PoolTest.View create() {",
+                        "        return PoolTest.create();",
+                        "    }",
+                        "}"),
+                TestCompiler.source("sample.LoggingPresenter",
+                        "package sample;",
+                        "import com.steve.mvp.autoimplement.internal.AutoImplement;",
+                        "import com.steve.mvp.autoimplement.internal.ImplementationOf;",
+                        "import com.steve.mvp.autoimplementprocessor.PoolTest;",
+                        "@AutoImplement(pooled = true, poolSize = 1)",
+                        "public abstract class LoggingPresenter implements PoolTest.View {",
+                        "    @ImplementationOf(PoolTest.View.class) protected PoolTest.View view;",
+                        "    protected StringBuilder log = new StringBuilder();",
+                        "    protected void onAcquire() {",
+                        "        log = new StringBuilder();",
+                        "    }",
+                        "    public String log(String text) {",
+                        "        return log.append(text).toString();",
+                        "    }",
+                        "}")));
+    }
+
+    @Test
+    public void reusedInstancesKeepTheirDelegates() throws Exception {
+        Class<?> impl = loader.loadClass("sample.PooledPresenter_Impl");
+        View presenter = (View) impl.getMethod("acquire").invoke(null);
+        View delegate = new CountingView();
+        set(impl, presenter, "view", delegate);
+        set(impl, presenter, "title", "title");
+        presenter.show("before");
+
+        release(impl, presenter);
+        View reused = (View) impl.getMethod("acquire").invoke(null);
+        assertSame(presenter, reused);
+        assertSame(delegate, get(impl, reused, "view"));
+        assertNull(get(impl, reused, "title"));
+        assertTrue(reused.show("text").endsWith(":text<before"));
+    }
+
+    @Test
+    public void threadLocalDelegatesAreCreatedAgain() throws Exception {
+        Class<?> impl = loader.loadClass("sample.PerThreadPresenter_Impl");
+        View presenter = (View) impl.getMethod("acquire").invoke(null);
+        String id = presenter.show("first").split(":")[0];
+        assertEquals(id + ":second<first", presenter.show("second"));
+
+        release(impl, presenter);
+        View reused = (View) impl.getMethod("acquire").invoke(null);
+        assertSame(presenter, reused);
+        String shown = reused.show("third");
+        //a new delegate, without the texts shown before release
+        assertFalse(shown, shown.contains("<"));
+        assertNotEquals(id, shown.split(":")[0]);
+    }
+
+    @Test
+    public void reusedInstancesAreSetUpByOnAcquire() throws Exception {
+        Class<?> impl = loader.loadClass("sample.LoggingPresenter_Impl");
+        Object presenter = impl.getMethod("acquire").invoke(null);
+        Method log = impl.getMethod("log", String.class);
+        assertEquals("first", log.invoke(presenter, "first"));
+
+        release(impl, (View) presenter);
+        Object reused = impl.getMethod("acquire").invoke(null);
+        assertSame(presenter, reused);
+        //cleared by reset, then initialized again
+        assertEquals("second", log.invoke(reused, "second"));
+    }
+
+    @Test
+    public void fieldsWithoutOnAcquireAreReported() {
+        assertThat(TestCompiler.compile(TestCompiler.source("sample.Unprepared",
+                "package sample;",
+                "import com.steve.mvp.autoimplement.internal.AutoImplement;",
+                "@AutoImplement(pooled = true)",
+                "public abstract class Unprepared {",
+                "    protected StringBuilder log = new StringBuilder();",
+                "}")))
+                .hadWarningContaining("reset() clears this field, set it up again in onAcquire()");
+    }
+
+    private static void release(Class<?> impl, View presenter) throws Exception {
+        Method release = impl.getMethod("release", impl.getSuperclass());
+        release.invoke(null, presenter);
+    }
+
+    private static void set(Class<?> impl, Object presenter, String name, Object value) throws Exception {
+        Field field = impl.getSuperclass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(presenter, value);
+    }
+
+    private static Object get(Class<?> impl, Object presenter, String name) throws Exception {
+        Field field = impl.getSuperclass().getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(presenter);
+    }
+}
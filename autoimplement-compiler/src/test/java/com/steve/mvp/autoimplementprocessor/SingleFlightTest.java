@@ -0,0 +1,130 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplementprocessor;
+
+import com.steve.mvp.autoimplement.internal.SingleFlight;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created by Steve Tchatchouang
+ */
+
+public class SingleFlightTest {
+    private static final int CALLERS = 4;
+
+    private static ClassLoader loader;
+
+    public interface Api {
+        @SingleFlight
+        String load(String id);
+    }
+
+    /**
+     * Counts calls, blocks them until released
+     */
+    public static class SlowApi implements Api {
+        final AtomicInteger  calls   = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public String load(String id) {
+            calls.incrementAndGet();
+            started.countDown();
+            try {
+                assertTrue(release.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+            return id + calls.get();
+        }
+    }
+
+    @BeforeClass
+    public static void compile() {
+        loader = TestCompiler.load(TestCompiler.compile(TestCompiler.source("sample.FlightPresenter",
+                "package sample;",
+                "import com.steve.mvp.autoimplement.internal.AutoImplement;",
+                "import com.steve.mvp.autoimplement.internal.ImplementationOf;",
+                "import com.steve.mvp.autoimplementprocessor.SingleFlightTest;",
+                "@AutoImplement",
+                "public abstract class FlightPresenter implements SingleFlightTest.Api {",
+                "    @ImplementationOf(SingleFlightTest.Api.class) protected SingleFlightTest.Api api;",
+                "}")));
+    }
+
+    @Test
+    public void concurrentCallsShareOneDelegateCall() throws Exception {
+        SlowApi delegate = new SlowApi();
+        final Api presenter = build(delegate);
+        final List<String> results = Collections.synchronizedList(new ArrayList<String>());
+        List<Thread> callers = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            callers.add(new Thread(() -> results.add(presenter.load("id"))));
+        }
+        //the first caller is in the delegate before the others call
+        callers.get(0).start();
+        assertTrue(delegate.started.await(5, TimeUnit.SECONDS));
+        for (Thread caller : callers.subList(1, CALLERS)) {
+            caller.start();
+        }
+        //every other caller waits on the first call before it ends
+        for (Thread caller : callers.subList(1, CALLERS)) {
+            for (int i = 0; i < 500 && caller.getState() != Thread.State.WAITING
+                    && caller.getState() != Thread.State.TIMED_WAITING; i++) {
+                Thread.sleep(10);
+            }
+        }
+        delegate.release.countDown();
+        for (Thread caller : callers) {
+            caller.join(5000);
+            assertFalse(caller.isAlive());
+        }
+        assertEquals(Collections.nCopies(CALLERS, "id1"), results);
+        assertEquals(1, delegate.calls.get());
+    }
+
+    @Test
+    public void endedCallsAreNotShared() throws Exception {
+        SlowApi delegate = new SlowApi();
+        delegate.release.countDown();
+        Api presenter = build(delegate);
+        assertEquals("id1", presenter.load("id"));
+        assertEquals("id2", presenter.load("id"));
+        assertEquals("other3", presenter.load("other"));
+    }
+
+    private static Api build(Api delegate) throws Exception {
+        Object presenter = TestCompiler.newInstance(loader, "sample.FlightPresenter_Impl");
+        Field field = presenter.getClass().getSuperclass().getDeclaredField("api");
+        field.setAccessible(true);
+        field.set(presenter, delegate);
+        return (Api) presenter;
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplementprocessor;
+
+import com.google.testing.compile.Compilation;
+import com.steve.mvp.autoimplement.internal.Memoize;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.tools.JavaFileObject;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static org.junit.Assert.*;
+
+/**
+ * Created by Steve Tchatchouang
+ */
+
+public class SwapTest {
+
+    private static final JavaFileObject PRESENTER = TestCompiler.source("sample.SwapPresenter",
+            "package sample;",
+            "import com.steve.mvp.autoimplement.internal.AutoImplement;",
+            "import com.steve.mvp.autoimplement.internal.ImplementationOf;",
+            "import java.util.function.Supplier;",
+            "@AutoImplement",
+            "public abstract class SwapPresenter implements Supplier<String> {",
+            "    @ImplementationOf(value = Supplier.class, swappable = true)",
+            "    protected volatile Supplier<String> supplier;",
+            "}");
+
+    private static final JavaFileObject MEMOIZED = TestCompiler.source("sample.MemoizedSwapPresenter",
+            "package sample;",
+            "import com.steve.mvp.autoimplement.internal.AutoImplement;",
+            "import com.steve.mvp.autoimplement.internal.ImplementationOf;",
+            "import com.steve.mvp.autoimplementprocessor.SwapTest;",
+            "@AutoImplement",
+            "public abstract class MemoizedSwapPresenter implements SwapTest.Lookup {",
+            "    @ImplementationOf(value = SwapTest.Lookup.class, swappable = true)",
+            "    protected volatile SwapTest.Lookup lookup;",
+            "}");
+
+    private static Class<?> impl;
+    private static Class<?> memoized;
+
+    public interface Lookup {
+        @Memoize
+        String load(String key);
+    }
+
+    @BeforeClass
+    public static void compile() throws Exception {
+        ClassLoader loader = TestCompiler.load(TestCompiler.compile(PRESENTER, MEMOIZED));
+        impl = loader.loadClass("sample.SwapPresenter_Impl");
+        memoized = loader.loadClass("sample.MemoizedSwapPresenter_Impl");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void swapReplacesTheDelegate() throws Exception {
+        Supplier<String> presenter = (Supplier<String>) impl.getConstructor().newInstance();
+        Method swap = impl.getMethod("swapSupplier", Supplier.class);
+        Supplier<String> first = () -> "first";
+        assertNull(swap.invoke(presenter, first));
+        assertEquals("first", presenter.get());
+        assertSame(first, swap.invoke(presenter, (Supplier<String>) () -> "second"));
+        assertEquals("second", presenter.get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void callsSeeOneDelegateWhileSwapping() throws Exception {
+        final Supplier<String> presenter = (Supplier<String>) impl.getConstructor().newInstance();
+        final Method swap = impl.getMethod("swapSupplier", Supplier.class);
+        final Supplier<String> first = () -> "first";
+        final Supplier<String> second = () -> "second";
+        swap.invoke(presenter, first);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> swapper = executor.submit(() -> {
+                for (int i = 0; i < 100000; i++) {
+                    swap.invoke(presenter, i % 2 == 0 ? second : first);
+                }
+                return null;
+            });
+            while (!swapper.isDone()) {
+                String value = presenter.get();
+                assertTrue(value, value.equals("first") || value.equals("second"));
+            }
+            swapper.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals("first", presenter.get());
+    }
+
+    @Test
+    public void swapDropsTheMemoizedResultsOfThePreviousDelegate() throws Exception {
+        Lookup presenter = (Lookup) memoized.getConstructor().newInstance();
+        Method swap = memoized.getMethod("swapLookup", Lookup.class);
+        swap.invoke(presenter, (Lookup) key -> "old " + key);
+        assertEquals("old key", presenter.load("key"));
+        Lookup next = key -> "new " + key;
+        swap.invoke(presenter, next);
+        assertEquals("new key", presenter.load("key"));
+        //memoized again
+        swap.invoke(presenter, next);
+        assertEquals("new key", presenter.load("key"));
+    }
+
+    @Test
+    public void callsInProgressDuringASwapAreNotMemoized() throws Exception {
+        final Lookup presenter = (Lookup) memoized.getConstructor().newInstance();
+        final Method swap = memoized.getMethod("swapLookup", Lookup.class);
+        //swaps while the previous delegate is computing
+        swap.invoke(presenter, (Lookup) key -> {
+            try {
+                swap.invoke(presenter, (Lookup) other -> "new " + other);
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            }
+            return "old " + key;
+        });
+        assertEquals("old key", presenter.load("key"));
+        assertEquals("new key", presenter.load("key"));
+    }
+
+    @Test
+    public void swappableFieldsMustBeVolatileAndNotFinal() {
+        JavaFileObject presenter = TestCompiler.source("sample.Wrong",
+                "package sample;",
+                "import com.steve.mvp.autoimplement.internal.AutoImplement;",
+                "import com.steve.mvp.autoimplement.internal.ImplementationOf;",
+                "import java.util.function.Supplier;",
+                "@AutoImplement",
+                "public abstract class Wrong implements Supplier<String> {",
+                "    @ImplementationOf(value = Supplier.class, swappable = true)",
+                "    protected final Supplier<String> supplier = null;",
+                "}");
+        Compilation compilation = TestCompiler.compile(presenter);
+        assertThat(compilation).hadErrorContaining("supplier should be volatile");
+        assertThat(compilation).hadErrorContaining("supplier should not be final");
+    }
+
+    @Test
+    public void threadLocalDelegatesCannotBeSwapped() {
+        JavaFileObject presenter = TestCompiler.source("sample.Wrong",
+                "package sample;",
+                "import com.steve.mvp.autoimplement.internal.*;",
+                "import java.util.function.Supplier;",
+                "@AutoImplement",
+                "public abstract class Wrong implements Supplier<String> {",
+                "    @ImplementationOf(value = Supplier.class, swappable = true,",
+                "            concurrency = Concurrency.THREAD_LOCAL, factory = \"create\")",
+                "    protected Supplier<String> supplier;",
+                "    protected Supplier<String> create() { return () -> \"\"; }",
+                "}");
+        assertThat(TestCompiler.compile(presenter)).hadErrorContaining("supplier cannot be swapped, it is created per thread");
+    }
+}
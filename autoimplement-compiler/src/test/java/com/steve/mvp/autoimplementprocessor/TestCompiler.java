@@ -0,0 +1,104 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplementprocessor;
+
+import com.google.common.io.ByteStreams;
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.tools.JavaFileObject;
+
+import static com.google.common.truth.Truth.assertWithMessage;
+import static com.google.testing.compile.Compiler.javac;
+
+/**
+ * Compiles fixtures with the processors, and loads the classes they generate.
+ * Fixtures can use the test classes, generated classes are loaded by a child of the test class loader.
+ * Created by Steve Tchatchouang
+ */
+
+final class TestCompiler {
+    private static final String CLASS_OUTPUT = "/CLASS_OUTPUT/";
+
+    private TestCompiler() {
+    }
+
+    /**
+     * @param lines : source of fullyQualifiedName, its package declaration included
+     */
+    static JavaFileObject source(String fullyQualifiedName, String... lines) {
+        return JavaFileObjects.forSourceLines(fullyQualifiedName, lines);
+    }
+
+    static Compilation compile(JavaFileObject... sources) {
+        return compile(Arrays.<String>asList(), sources);
+    }
+
+    /**
+     * Compile sources with the processors, in the order of META-INF/services
+     */
+    static Compilation compile(List<String> options, JavaFileObject... sources) {
+        return javac()
+                .withOptions(options)
+                .withProcessors(new ImplementationOfProcessor(), new AutoImplRegistryProcessor(), new AutoImplementProcessor())
+                .compile(sources);
+    }
+
+    /**
+     * @return loader of the classes compiled and generated by compilation, which must have succeeded
+     */
+    static ClassLoader load(Compilation compilation) {
+        assertWithMessage(compilation.diagnostics().toString()).that(compilation.status()).isEqualTo(Compilation.Status.SUCCESS);
+        final Map<String, byte[]> classes = new HashMap<>();
+        for (JavaFileObject file : compilation.generatedFiles()) {
+            String path = file.toUri().getPath();
+            if (file.getKind() != JavaFileObject.Kind.CLASS || !path.startsWith(CLASS_OUTPUT)) {
+                continue;
+            }
+            String name = path.substring(CLASS_OUTPUT.length(), path.length() - JavaFileObject.Kind.CLASS.extension.length());
+            try (InputStream in = file.openInputStream()) {
+                classes.put(name.replace('/', '.'), ByteStreams.toByteArray(in));
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+        }
+        return new ClassLoader(TestCompiler.class.getClassLoader()) {
+            @Override
+            protected Class<?> findClass(String name) throws ClassNotFoundException {
+                byte[] bytes = classes.get(name);
+                if (bytes == null) {
+                    throw new ClassNotFoundException(name);
+                }
+                return defineClass(name, bytes, 0, bytes.length);
+            }
+        };
+    }
+
+    /**
+     * @return new instance of className, built with its no argument constructor
+     */
+    static Object newInstance(ClassLoader loader, String className) throws Exception {
+        return loader.loadClass(className).getConstructor().newInstance();
+    }
+}
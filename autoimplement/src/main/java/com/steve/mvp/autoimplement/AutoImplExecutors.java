@@ -0,0 +1,87 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplement;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors used by generated code when none is given
+ * Created by Steve Tchatchouang
+ */
+
+public final class AutoImplExecutors {
+    private static volatile Executor defaultExecutor;
+
+    private AutoImplExecutors() {
+    }
+
+    /**
+     * @return executor set with {@link #setDefault(Executor)}, else a virtual thread per task
+     * executor when the JVM has them, else a cached pool of daemon threads
+     */
+    public static Executor getDefault() {
+        Executor executor = defaultExecutor;
+        if (executor == null) {
+            synchronized (AutoImplExecutors.class) {
+                executor = defaultExecutor;
+                if (executor == null) {
+                    executor = createDefault();
+                    defaultExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    public static void setDefault(Executor executor) {
+        defaultExecutor = executor;
+    }
+
+    private static Executor createDefault() {
+        try {
+            //Java 21+, looked up reflectively to stay Java 8 and Android compatible
+            Method virtual = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) virtual.invoke(null);
+        } catch (Exception e) {
+            return Executors.newCachedThreadPool(new DaemonThreadFactory("autoimplement-async-"));
+        }
+    }
+
+    /**
+     * Names threads prefix + number and makes them daemon, they never keep the JVM alive
+     */
+    public static class DaemonThreadFactory implements ThreadFactory {
+        private final String        prefix;
+        private final AtomicInteger count = new AtomicInteger();
+
+        public DaemonThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplement;
+
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Generated factory of an {@code _Impl} class. Each generated implementation declares one
+ * as its nested {@code Factory} class, it calls the implementation constructors directly.
+ * Created by Steve Tchatchouang
+ */
+
+public interface AutoImplFactory<T> {
+
+    /**
+     * @return the {@link com.steve.mvp.autoimplement.internal.AutoImplement} class this factory builds
+     */
+    Class<T> type();
+
+    /**
+     * @param constructorsType  : constructor signature, null or empty for the default constructor
+     * @param constructorParams : constructor arguments
+     * @return new instance, or null if no generated constructor matches constructorsType
+     * @throws InvocationTargetException wrapping what the constructor threw, as {@link java.lang.reflect.Constructor#newInstance(Object...)}
+     */
+    T create(Class[] constructorsType, Object[] constructorParams) throws InvocationTargetException;
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplement;
+
+/**
+ * Registry generated once per module by the processor, it lists the factories of every
+ * generated implementation of the module.
+ * Registries are found with {@link java.util.ServiceLoader} or added with
+ * {@link AutoImplUtils#register(AutoImplRegistry)}.
+ * Created by Steve Tchatchouang
+ */
+
+public interface AutoImplRegistry {
+
+    AutoImplFactory<?>[] factories();
+
+    /**
+     * @return binary names of the generated implementations, by decreasing warm-up priority
+     */
+    String[] implementations();
+
+    /**
+     * @return warm-up priority of each of {@link #implementations()}
+     */
+    int[] priorities();
+}
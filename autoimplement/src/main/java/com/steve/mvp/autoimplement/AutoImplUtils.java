@@ -17,7 +17,20 @@
 package com.steve.mvp.autoimplement;
 
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Created by Steve Tchatchouang
@@ -30,39 +43,304 @@ public class AutoImplUtils {
     private AutoImplUtils() {
     }
 
+    /**
+     * Add the factories of a generated registry. Registries declared in
+     * META-INF/services are loaded automatically, this is for packagings that drop them.
+     */
+    public static void register(AutoImplRegistry registry) {
+        Registries.register(registry);
+    }
+
+    /**
+     * @param klass             : {@link com.steve.mvp.autoimplement.internal.AutoImplement} class
+     * @param constructorsType  : constructor signature, null or empty for the default constructor
+     * @param constructorParams : constructor arguments
+     * @return new instance of the generated implementation
+     * @throws AutoImplException if the implementation or the constructor is missing, or if the constructor fails
+     */
+    @SuppressWarnings("unchecked")
     public static <T> T build(Class<T> klass, Class[] constructorsType, Object[] constructorParams) {
-        AutoImplBuilder<T> builder = new AutoImplBuilder<>(klass, constructorsType, constructorParams);
-        return builder.build();
+        //Generated factory first, no reflection
+        AutoImplFactory<T> factory = (AutoImplFactory<T>) Registries.FACTORIES.get(klass);
+        if (factory != null) {
+            T instance;
+            try {
+                instance = factory.create(constructorsType, constructorParams);
+            } catch (InvocationTargetException e) {
+                throw new AutoImplException(klass.getName() + " constructor " + Arrays.toString(constructorsType) + " failed", e.getCause());
+            } catch (ClassCastException | NullPointerException | ArrayIndexOutOfBoundsException e) {
+                //arguments not matching constructorsType, as IllegalArgumentException on the reflective path
+                throw new AutoImplException("Cannot invoke " + klass.getName() + " constructor " + Arrays.toString(constructorsType), e);
+            }
+            if (instance != null) {
+                return instance;
+            }
+        }
+        return (T) ReflectiveFactory.of(klass).create(constructorsType, constructorParams);
     }
 
-    private static class AutoImplBuilder<T> {
-        private final Class[]  constructorType;
-        private final Object[] constructorParams;
-        private final Class<T> klass;
-        private final boolean  shouldUseDefaultConstructor;
+    /**
+     * @return registries added so far, loaded from META-INF/services first
+     */
+    static List<AutoImplRegistry> getRegistries() {
+        return Registries.REGISTRIES;
+    }
+
+    /**
+     * @return binary name of the generated implementation, it is a top level class
+     * even when klass is nested
+     */
+    private static String implName(Class<?> klass) {
+        String name = klass.getName();
+        int dot = name.lastIndexOf('.');
+        return name.substring(0, dot + 1) + klass.getSimpleName() + SUFFIX;
+    }
+
+    private static class Registries {
+        private static final Map<Class<?>, AutoImplFactory<?>> FACTORIES  = new ConcurrentHashMap<>();
+        private static final List<AutoImplRegistry>             REGISTRIES = new CopyOnWriteArrayList<>();
+
+        static {
+            try {
+                for (AutoImplRegistry registry : ServiceLoader.load(AutoImplRegistry.class, AutoImplUtils.class.getClassLoader())) {
+                    register(registry);
+                }
+            } catch (ServiceConfigurationError e) {
+                //reflection is still available
+                Logger.getLogger(AutoImplUtils.class.getName()).log(Level.WARNING, "Cannot load the generated registries", e);
+            }
+        }
+
+        private static void register(AutoImplRegistry registry) {
+            REGISTRIES.add(registry);
+            for (AutoImplFactory<?> factory : registry.factories()) {
+                FACTORIES.put(factory.type(), factory);
+            }
+        }
+    }
+
+    /**
+     * Reflective fallback, resolves the implementation class once per class and each
+     * constructor once per signature, then calls it through a {@link ConstructorInvoker}
+     */
+    private static class ReflectiveFactory {
+        private static final FactoryCache CACHE     = FactoryCache.create();
+        private static final Class[]      NO_TYPES  = new Class[0];
+        private static final Object[]     NO_PARAMS = new Object[0];
+
+        private final Class<?>               klass;
+        private final Class<?>               implClass;
+        private final ClassNotFoundException missing;
+        //copy on write, few signatures per class
+        private volatile ConstructorEntry[]  constructors = new ConstructorEntry[0];
 
-        AutoImplBuilder(Class<T> klass, Class[] constructorsType, Object[] constructorParams) {
+        private ReflectiveFactory(Class<?> klass) {
             this.klass = klass;
-            this.constructorParams = constructorParams;
-            this.constructorType = constructorsType;
-            shouldUseDefaultConstructor = constructorsType == null || constructorsType.length == 0;
+            Class<?> implClass = null;
+            ClassNotFoundException missing = null;
+            try {
+                implClass = Class.forName(implName(klass), false, klass.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                missing = e;
+            }
+            this.implClass = implClass;
+            this.missing = missing;
+        }
+
+        static ReflectiveFactory of(Class<?> klass) {
+            return CACHE.get(klass);
+        }
+
+        Object create(Class[] constructorsType, Object[] constructorParams) {
+            ConstructorInvoker invoker = getInvoker(constructorsType == null ? NO_TYPES : constructorsType);
+            return invoker.invoke(constructorParams == null ? NO_PARAMS : constructorParams);
         }
 
-        private T build() {
+        private ConstructorInvoker getInvoker(Class[] constructorsType) {
+            for (ConstructorEntry entry : constructors) {
+                if (Arrays.equals(entry.types, constructorsType)) {
+                    return entry.invoker;
+                }
+            }
+            if (implClass == null) {
+                throw new AutoImplException("No generated implementation for " + klass.getName(), missing);
+            }
+            synchronized (this) {
+                ConstructorEntry[] current = constructors;
+                for (ConstructorEntry entry : current) {
+                    if (Arrays.equals(entry.types, constructorsType)) {
+                        return entry.invoker;
+                    }
+                }
+                Constructor<?> constructor;
+                try {
+                    constructor = implClass.getConstructor(constructorsType);
+                } catch (NoSuchMethodException e) {
+                    throw new AutoImplException(
+                            "No public constructor " + Arrays.toString(constructorsType) + " in " + implClass.getName(), e
+                    );
+                }
+                ConstructorInvoker invoker = ConstructorInvoker.of(constructor);
+                ConstructorEntry[] updated = Arrays.copyOf(current, current.length + 1);
+                updated[current.length] = new ConstructorEntry(constructorsType.clone(), invoker);
+                constructors = updated;
+                return invoker;
+            }
+        }
+    }
+
+    /**
+     * Calls a resolved constructor with Constructor.newInstance. Where java.lang.invoke exists
+     * (JVMs, Android API 26+), a MethodHandle spreading the arguments is used instead, it skips
+     * the access and argument checks of newInstance on every call. Android before API 26 has no
+     * MethodHandle, so it only lives in HandleInvoker, never loaded there.
+     */
+    private static class ConstructorInvoker {
+        private static final boolean HANDLES = hasHandles();
+
+        final Constructor<?> constructor;
+
+        ConstructorInvoker(Constructor<?> constructor) {
+            this.constructor = constructor;
+        }
+
+        static ConstructorInvoker of(Constructor<?> constructor) {
+            if (HANDLES) {
+                try {
+                    return new HandleInvoker(constructor);
+                } catch (IllegalAccessException e) {
+                    //not public for the public lookup, newInstance reports it
+                }
+            }
+            return new ConstructorInvoker(constructor);
+        }
+
+        Object invoke(Object[] params) {
+            try {
+                return constructor.newInstance(params);
+            } catch (InvocationTargetException e) {
+                throw new AutoImplException(constructor + " failed", e.getCause());
+            } catch (InstantiationException | IllegalAccessException | IllegalArgumentException e) {
+                throw new AutoImplException("Cannot invoke " + constructor, e);
+            }
+        }
+
+        private static boolean hasHandles() {
             try {
-                if (shouldUseDefaultConstructor) {
-                    Class<?> aClass = Class.forName(klass.getCanonicalName() + SUFFIX);
-                    return (T) aClass.newInstance();
-                } else {
-                    Class<?> aClass = Class.forName(klass.getCanonicalName() + SUFFIX);
-                    Constructor constructor = aClass.getConstructor(constructorType);
-                    return (T) constructor.newInstance(constructorParams);
+                Class.forName("java.lang.invoke.MethodHandles");
+                return true;
+            } catch (ClassNotFoundException e) {
+                return false;
+            }
+        }
+    }
+
+    //only loaded where MethodHandles exist
+    private static class HandleInvoker extends ConstructorInvoker {
+        private final MethodHandle handle;
+        //parameter types, primitives boxed
+        private final Class<?>[]   types;
+        private final boolean[]    primitives;
+
+        HandleInvoker(Constructor<?> constructor) throws IllegalAccessException {
+            super(constructor);
+            Class<?>[] parameters = constructor.getParameterTypes();
+            this.types = new Class<?>[parameters.length];
+            this.primitives = new boolean[parameters.length];
+            for (int i = 0; i < parameters.length; i++) {
+                types[i] = MethodType.methodType(parameters[i]).wrap().returnType();
+                primitives[i] = parameters[i].isPrimitive();
+            }
+            this.handle = MethodHandles.publicLookup().unreflectConstructor(constructor)
+                    .asSpreader(Object[].class, parameters.length)
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+        }
+
+        @Override
+        Object invoke(Object[] params) {
+            //mismatches and primitive widenings go through newInstance, which checks them
+            if (!accepts(params)) {
+                return super.invoke(params);
+            }
+            try {
+                return (Object) handle.invokeExact(params);
+            } catch (Throwable e) {
+                throw new AutoImplException(constructor + " failed", e);
+            }
+        }
+
+        private boolean accepts(Object[] params) {
+            if (params.length != types.length) {
+                return false;
+            }
+            for (int i = 0; i < params.length; i++) {
+                Object param = params[i];
+                if (param == null ? primitives[i] : !types[i].isInstance(param)) {
+                    return false;
                 }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * ReflectiveFactory per class. A ClassValue keeps it with the class, so classes and their
+     * class loader can still be unloaded. Android before API 34 has no ClassValue, a map is used
+     * there, classes are not unloaded anyway.
+     */
+    private abstract static class FactoryCache {
+
+        abstract ReflectiveFactory get(Class<?> klass);
+
+        static FactoryCache create() {
+            try {
+                Class.forName("java.lang.ClassValue");
+            } catch (ClassNotFoundException e) {
+                return new MapCache();
+            }
+            return new ClassValueCache();
+        }
+    }
+
+    //only loaded where ClassValue exists
+    private static class ClassValueCache extends FactoryCache {
+        private final ClassValue<ReflectiveFactory> factories = new ClassValue<ReflectiveFactory>() {
+            @Override
+            protected ReflectiveFactory computeValue(Class<?> klass) {
+                return new ReflectiveFactory(klass);
+            }
+        };
+
+        @Override
+        ReflectiveFactory get(Class<?> klass) {
+            return factories.get(klass);
+        }
+    }
+
+    private static class MapCache extends FactoryCache {
+        private final Map<Class<?>, ReflectiveFactory> factories = new ConcurrentHashMap<>();
 
-            } catch (Exception e) {
-                e.printStackTrace();
-                return null;
+        @Override
+        ReflectiveFactory get(Class<?> klass) {
+            ReflectiveFactory factory = factories.get(klass);
+            if (factory == null) {
+                factory = new ReflectiveFactory(klass);
+                ReflectiveFactory previous = factories.putIfAbsent(klass, factory);
+                if (previous != null) {
+                    factory = previous;
+                }
             }
+            return factory;
+        }
+    }
+
+    private static class ConstructorEntry {
+        private final Class[]            types;
+        private final ConstructorInvoker invoker;
+
+        ConstructorEntry(Class[] types, ConstructorInvoker invoker) {
+            this.types = types;
+            this.invoker = invoker;
         }
     }
 }
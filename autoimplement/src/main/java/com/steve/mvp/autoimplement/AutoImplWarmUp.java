@@ -0,0 +1,292 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.steve.mvp.autoimplement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads and initializes the generated implementations of the registries in the background,
+ * so their first use does not pay for class loading and static initialization.
+ * Implementations are taken by decreasing warm-up priority by a few low priority daemon threads,
+ * the first one lists them so the caller does not wait for the registries.
+ * <pre>
+ *     AutoImplWarmUp warmUp = AutoImplWarmUp.start();
+ *     ...
+ *     Log.d(TAG, warmUp.await().toString());
+ * </pre>
+ * Created by Steve Tchatchouang
+ */
+
+public final class AutoImplWarmUp {
+    private final int                                   threads;
+    private final int                                   minPriority;
+    private final ClassLoader                           loader = AutoImplWarmUp.class.getClassLoader();
+    private final AutoImplExecutors.DaemonThreadFactory threadFactory =
+            new AutoImplExecutors.DaemonThreadFactory("autoimplement-warmup-");
+    private final AtomicInteger                         next = new AtomicInteger();
+    private final AtomicInteger                         remaining = new AtomicInteger();
+    private final CountDownLatch                        done = new CountDownLatch(1);
+    private final long                                  start;
+
+    //empty until listed by the first worker
+    private volatile List<Entry> entries = Collections.emptyList();
+    private volatile long        end;
+
+    private AutoImplWarmUp(int threads, int minPriority) {
+        this.threads = threads;
+        this.minPriority = minPriority;
+        this.start = System.nanoTime();
+        startWorker(true);
+    }
+
+    private void startWorker(boolean first) {
+        Thread thread = threadFactory.newThread(new Worker(first));
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * Warm up every implementation on up to 4 threads
+     */
+    public static AutoImplWarmUp start() {
+        return start(Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1)), Integer.MIN_VALUE);
+    }
+
+    /**
+     * @param minPriority : implementations with a lower warm-up priority are skipped
+     */
+    public static AutoImplWarmUp start(int threads, int minPriority) {
+        return new AutoImplWarmUp(Math.max(1, threads), minPriority);
+    }
+
+    /**
+     * @return implementations to load, by decreasing priority
+     */
+    private static List<Entry> list(int minPriority) {
+        List<Entry> entries = new ArrayList<>();
+        for (AutoImplRegistry registry : AutoImplUtils.getRegistries()) {
+            String[] implementations = registry.implementations();
+            int[] priorities = registry.priorities();
+            for (int i = 0; i < implementations.length; i++) {
+                if (priorities[i] >= minPriority) {
+                    entries.add(new Entry(implementations[i], priorities[i]));
+                }
+            }
+        }
+        //registries are each sorted, merge them
+        Collections.sort(entries, new Comparator<Entry>() {
+            @Override
+            public int compare(Entry first, Entry second) {
+                return second.priority < first.priority ? -1 : (second.priority == first.priority ? 0 : 1);
+            }
+        });
+        return entries;
+    }
+
+    /**
+     * @return true once every implementation is loaded
+     */
+    public boolean isDone() {
+        return done.getCount() == 0;
+    }
+
+    /**
+     * @return report, once every implementation is loaded
+     */
+    public Report await() throws InterruptedException {
+        done.await();
+        return getReport();
+    }
+
+    /**
+     * @return report, null if not done within timeout
+     */
+    public Report await(long timeout, TimeUnit unit) throws InterruptedException {
+        return done.await(timeout, unit) ? getReport() : null;
+    }
+
+    /**
+     * @return timings of the implementations loaded so far
+     */
+    public Report getReport() {
+        long now = isDone() ? end : System.nanoTime();
+        return new Report(entries, now - start);
+    }
+
+    private void finish() {
+        end = System.nanoTime();
+        done.countDown();
+    }
+
+    private class Worker implements Runnable {
+        private final boolean first;
+
+        Worker(boolean first) {
+            this.first = first;
+        }
+
+        @Override
+        public void run() {
+            if (first && !listEntries()) {
+                return;
+            }
+            List<Entry> entries = AutoImplWarmUp.this.entries;
+            for (int i = next.getAndIncrement(); i < entries.size(); i = next.getAndIncrement()) {
+                Entry entry = entries.get(i);
+                long entryStart = System.nanoTime();
+                try {
+                    Class.forName(entry.className, true, loader);
+                } catch (Throwable e) {
+                    entry.failure = e;
+                }
+                entry.nanos = System.nanoTime() - entryStart;
+                entry.loaded = true;
+                if (remaining.decrementAndGet() == 0) {
+                    finish();
+                }
+            }
+        }
+
+        /**
+         * List the implementations then start the other workers
+         *
+         * @return false if there is nothing to load
+         */
+        private boolean listEntries() {
+            List<Entry> listed;
+            try {
+                listed = list(minPriority);
+            } catch (RuntimeException | Error e) {
+                //await() returns an empty report
+                finish();
+                throw e;
+            }
+            if (listed.isEmpty()) {
+                finish();
+                return false;
+            }
+            remaining.set(listed.size());
+            entries = listed;
+            for (int i = 1; i < Math.min(threads, listed.size()); i++) {
+                startWorker(false);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Timings of a warm-up, slowest implementations first
+     */
+    public static final class Report {
+        private final List<Entry> entries = new ArrayList<>();
+        private final long        elapsedNanos;
+        private final int         failures;
+
+        Report(List<Entry> all, long elapsedNanos) {
+            int failed = 0;
+            for (Entry entry : all) {
+                if (entry.loaded) {
+                    entries.add(entry);
+                    failed += entry.failure == null ? 0 : 1;
+                }
+            }
+            Collections.sort(entries, new Comparator<Entry>() {
+                @Override
+                public int compare(Entry first, Entry second) {
+                    return second.nanos < first.nanos ? -1 : (second.nanos == first.nanos ? 0 : 1);
+                }
+            });
+            this.elapsedNanos = elapsedNanos;
+            this.failures = failed;
+        }
+
+        public List<Entry> getEntries() {
+            return Collections.unmodifiableList(entries);
+        }
+
+        /**
+         * @return wall time of the warm-up, all threads together
+         */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public int getFailures() {
+            return failures;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder report = new StringBuilder()
+                    .append(entries.size()).append(" implementations warmed up in ")
+                    .append(TimeUnit.NANOSECONDS.toMillis(elapsedNanos)).append(" ms, ")
+                    .append(failures).append(" failures");
+            for (Entry entry : entries) {
+                report.append('\n').append(entry);
+            }
+            return report.toString();
+        }
+    }
+
+    /**
+     * Loading of one implementation
+     */
+    public static final class Entry {
+        private final String className;
+        private final int    priority;
+
+        //written by the worker before the latch count down
+        private volatile boolean   loaded;
+        private          long      nanos;
+        private          Throwable failure;
+
+        Entry(String className, int priority) {
+            this.className = className;
+            this.priority = priority;
+        }
+
+        public String getClassName() {
+            return className;
+        }
+
+        public int getPriority() {
+            return priority;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * @return exception thrown while loading, null if loaded
+         */
+        public Throwable getFailure() {
+            return failure;
+        }
+
+        @Override
+        public String toString() {
+            return className + " (priority " + priority + ") "
+                    + TimeUnit.NANOSECONDS.toMicros(nanos) + " us" + (failure == null ? "" : " failed: " + failure);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplement;
+
+import java.util.Arrays;
+
+/**
+ * Key made of call arguments, used by generated code to cache or share calls.
+ * One argument is its own key, no allocation, unless it is an array.
+ * Created by Steve Tchatchouang
+ */
+
+public final class CallKey {
+    private static final Object NO_ARGUMENT   = new Object();
+    private static final Object NULL_ARGUMENT = new Object();
+
+    private final Object[] arguments;
+    private final int      hash;
+
+    private CallKey(Object[] arguments) {
+        this.arguments = arguments;
+        this.hash = Arrays.deepHashCode(arguments);
+    }
+
+    public static Object of() {
+        return NO_ARGUMENT;
+    }
+
+    public static Object of(Object argument) {
+        if (argument == null) {
+            return NULL_ARGUMENT;
+        }
+        //arrays compare by content
+        return argument.getClass().isArray() ? new CallKey(new Object[]{argument}) : argument;
+    }
+
+    public static Object of(Object... arguments) {
+        return new CallKey(arguments);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof CallKey && Arrays.deepEquals(arguments, ((CallKey) o).arguments);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.deepToString(arguments);
+    }
+}
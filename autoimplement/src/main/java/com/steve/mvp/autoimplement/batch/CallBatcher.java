@@ -0,0 +1,199 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.steve.mvp.autoimplement.batch;
+
+import com.steve.mvp.autoimplement.AutoImplExecutors;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Buffers the calls of a generated batched method and sends them to a {@link Sink} in order.
+ * Adding never waits: the thread filling a batch sends it unless another thread is sending,
+ * which then sends it too. Batches are sent one at a time, the delegate never receives
+ * concurrent batch calls. A batch the sink throws on is sent again first by the next send.
+ * Delayed batches are sent on the default executor of {@link AutoImplExecutors}, exceptions
+ * go to its uncaught handler.
+ * Created by Steve Tchatchouang
+ */
+
+public final class CallBatcher<T> {
+    private final Queue<T>      calls     = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending   = new AtomicInteger();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final ReentrantLock sendLock  = new ReentrantLock();
+    private final int           size;
+    private final long          maxDelayMillis;
+    private final Sink<T>       sink;
+    private final Runnable      delayedFlush;
+
+    private volatile boolean closed;
+
+    //batch the sink threw on, guarded by sendLock
+    private List<T> unsent;
+
+    /**
+     * @param maxDelayMillis : 0 to only send full batches and on flush
+     */
+    public CallBatcher(int size, long maxDelayMillis, Sink<T> sink) {
+        this.size = Math.max(1, size);
+        this.maxDelayMillis = maxDelayMillis;
+        this.sink = sink;
+        this.delayedFlush = new Runnable() {
+            @Override
+            public void run() {
+                AutoImplExecutors.getDefault().execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        scheduled.set(false);
+                        try {
+                            flush();
+                        } catch (RuntimeException | Error e) {
+                            Thread thread = Thread.currentThread();
+                            thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+                        }
+                    }
+                });
+            }
+        };
+    }
+
+    /**
+     * Buffer call, sending the batch if it is full. Once closed, call is sent alone.
+     */
+    public void add(T call) {
+        if (closed) {
+            sendLock.lock();
+            try {
+                send(true);
+                sink.accept(Collections.singletonList(call));
+            } finally {
+                sendLock.unlock();
+            }
+            return;
+        }
+        calls.offer(call);
+        int count = pending.incrementAndGet();
+        //closed meanwhile, the closing flush may have missed call
+        if (closed) {
+            flush();
+        } else if (count >= size) {
+            sendFullBatches();
+        } else if (maxDelayMillis > 0 && scheduled.compareAndSet(false, true)) {
+            Scheduler.INSTANCE.schedule(delayedFlush, maxDelayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Send every buffered call, returns once sent
+     */
+    public void flush() {
+        sendLock.lock();
+        try {
+            send(true);
+        } finally {
+            sendLock.unlock();
+        }
+        //full batches added while sending, their adders did not wait
+        sendFullBatches();
+    }
+
+    /**
+     * Flush, later calls are sent one by one
+     */
+    public void close() {
+        closed = true;
+        flush();
+    }
+
+    /**
+     * @return number of buffered calls
+     */
+    public int pending() {
+        return Math.max(0, pending.get());
+    }
+
+    /**
+     * Send full batches unless another thread is sending. Checked again once the lock is
+     * released: an adder may have filled a batch while it was held.
+     */
+    private void sendFullBatches() {
+        while (pending.get() >= size && sendLock.tryLock()) {
+            try {
+                send(false);
+            } finally {
+                sendLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Send the unsent batch, then buffered calls. Caller holds sendLock.
+     *
+     * @param all : true to send every buffered call, false to only send full batches
+     */
+    private void send(boolean all) {
+        while (true) {
+            List<T> batch = unsent;
+            if (batch != null) {
+                unsent = null;
+            } else {
+                if (all ? calls.isEmpty() : pending.get() < size) {
+                    return;
+                }
+                batch = new ArrayList<>(Math.min(size, Math.max(1, pending.get())));
+                T call;
+                while (batch.size() < size && (call = calls.poll()) != null) {
+                    batch.add(call);
+                }
+                if (batch.isEmpty()) {
+                    return;
+                }
+            }
+            pending.addAndGet(-batch.size());
+            try {
+                sink.accept(batch);
+            } catch (RuntimeException | Error e) {
+                unsent = batch;
+                pending.addAndGet(batch.size());
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Receiver of the batches, the delegate batch method in generated code
+     */
+    public interface Sink<T> {
+        void accept(List<T> calls);
+    }
+
+    /**
+     * Single daemon thread shared by all batchers, only hands delayed flushes to the executor
+     */
+    private static class Scheduler {
+        private static final ScheduledThreadPoolExecutor INSTANCE = new ScheduledThreadPoolExecutor(
+                1, new AutoImplExecutors.DaemonThreadFactory("autoimplement-batch-"));
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplement.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the stats of {@link com.steve.mvp.autoimplement.internal.Memoize} methods
+ * Created by Steve Tchatchouang
+ */
+
+public final class AutoImplCaches {
+    private static final Map<String, CacheStats> STATS = new ConcurrentHashMap<>();
+
+    private AutoImplCaches() {
+    }
+
+    /**
+     * Called once per memoized method, from static initializers
+     */
+    public static CacheStats register(Class<?> owner, String method) {
+        String key = owner.getName() + "." + method;
+        CacheStats stats = STATS.get(key);
+        if (stats == null) {
+            stats = new CacheStats(owner.getName(), method);
+            CacheStats previous = STATS.putIfAbsent(key, stats);
+            if (previous != null) {
+                stats = previous;
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * @return stats of all the memoized methods loaded so far
+     */
+    public static List<CacheStats> getAll() {
+        return new ArrayList<>(STATS.values());
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplement.cache;
+
+import com.steve.mvp.autoimplement.metrics.StripedCounter;
+
+/**
+ * Hits, misses and evictions of one memoized method, shared by all its instances
+ * Created by Steve Tchatchouang
+ */
+
+public class CacheStats {
+    private final String         owner;
+    private final String         method;
+    private final StripedCounter hits      = new StripedCounter();
+    private final StripedCounter misses    = new StripedCounter();
+    private final StripedCounter evictions = new StripedCounter();
+
+    CacheStats(String owner, String method) {
+        this.owner = owner;
+        this.method = method;
+    }
+
+    void hit() {
+        hits.increment();
+    }
+
+    void miss() {
+        misses.increment();
+    }
+
+    void evicted(int count) {
+        evictions.add(count);
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public double getHitRate() {
+        long hits = getHits();
+        long total = hits + getMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return owner + "." + method
+                + " hits=" + getHits()
+                + " misses=" + getMisses()
+                + " evictions=" + getEvictions();
+    }
+}
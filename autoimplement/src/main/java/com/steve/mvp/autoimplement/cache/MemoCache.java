@@ -0,0 +1,156 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplement.cache;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of delegate results used by generated memoized methods.
+ * Reads and writes go to a ConcurrentHashMap, there is no cache wide lock. Once full,
+ * a single thread at a time evicts expired entries then arbitrary ones until the cache
+ * is back under 90% of its size, concurrent callers do not wait for it.
+ * {@link #clear()} starts a new generation, results computed before it are not kept.
+ * Created by Steve Tchatchouang
+ */
+
+public class MemoCache {
+    /**
+     * Returned by {@link #get(Object)} when nothing is cached, null being a valid result
+     */
+    public static final Object MISS = new Object();
+
+    private static final Object NULL = new Object();
+
+    private final Map<Object, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean      evicting = new AtomicBoolean();
+    private final AtomicLong         generation = new AtomicLong();
+    private final int                maxSize;
+    private final long               expireNanos;
+    private final CacheStats         stats;
+
+    /**
+     * @param expireAfterWriteMillis : 0 for no expiration
+     */
+    public MemoCache(int maxSize, long expireAfterWriteMillis, CacheStats stats) {
+        this.maxSize = Math.max(1, maxSize);
+        this.expireNanos = expireAfterWriteMillis * 1000000L;
+        this.stats = stats;
+    }
+
+    /**
+     * @return cached result, or {@link #MISS}
+     */
+    public Object get(Object key) {
+        Entry entry = entries.get(key);
+        if (entry != null && isExpired(entry, System.nanoTime())) {
+            entries.remove(key, entry);
+            entry = null;
+        }
+        if (entry == null) {
+            stats.miss();
+            return MISS;
+        }
+        stats.hit();
+        return entry.value == NULL ? null : entry.value;
+    }
+
+    public void put(Object key, Object value) {
+        entries.put(key, new Entry(value == null ? NULL : value, expireNanos == 0 ? 0 : System.nanoTime()));
+        if (entries.size() > maxSize) {
+            evict();
+        }
+    }
+
+    /**
+     * Cache value unless the cache was cleared since {@link #getGeneration()} returned generation
+     */
+    public void put(Object key, Object value, long generation) {
+        if (this.generation.get() != generation) {
+            return;
+        }
+        Entry entry = new Entry(value == null ? NULL : value, expireNanos == 0 ? 0 : System.nanoTime());
+        entries.put(key, entry);
+        //cleared while putting
+        if (this.generation.get() != generation) {
+            entries.remove(key, entry);
+        } else if (entries.size() > maxSize) {
+            evict();
+        }
+    }
+
+    /**
+     * @return current generation, read before computing a value to {@link #put(Object, Object, long)}
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evict() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int evicted = 0;
+            long now = System.nanoTime();
+            int target = maxSize - maxSize / 10;
+            //expired first
+            if (expireNanos != 0) {
+                for (Iterator<Entry> it = entries.values().iterator(); it.hasNext(); ) {
+                    if (isExpired(it.next(), now)) {
+                        it.remove();
+                        evicted++;
+                    }
+                }
+            }
+            for (Iterator<Entry> it = entries.values().iterator(); it.hasNext() && entries.size() > target; ) {
+                it.next();
+                it.remove();
+                evicted++;
+            }
+            stats.evicted(evicted);
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return expireNanos != 0 && now - entry.writeTime >= expireNanos;
+    }
+
+    private static class Entry {
+        private final Object value;
+        private final long   writeTime;
+
+        Entry(Object value, long writeTime) {
+            this.value = value;
+            this.writeTime = writeTime;
+        }
+    }
+}
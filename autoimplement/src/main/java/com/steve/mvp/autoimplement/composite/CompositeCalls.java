@@ -0,0 +1,233 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.steve.mvp.autoimplement.composite;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calls of generated composites, one call per delegate.
+ * Failures are rethrown as thrown by the delegates, the first one with the others suppressed.
+ * Created by Steve Tchatchouang
+ */
+
+public final class CompositeCalls {
+
+    private CompositeCalls() {
+    }
+
+    /**
+     * Run every call, the first one on the calling thread and the others on executor
+     *
+     * @return results in calls order
+     */
+    public static <R> List<R> fanOut(List<? extends Callable<R>> calls, Executor executor) throws Exception {
+        List<FutureTask<R>> tasks = new ArrayList<>(calls.size());
+        for (int i = 1; i < calls.size(); i++) {
+            FutureTask<R> task = new FutureTask<>(calls.get(i));
+            tasks.add(task);
+            executor.execute(task);
+        }
+        List<R> results = new ArrayList<>(calls.size());
+        Exception failure = null;
+        try {
+            results.add(calls.get(0).call());
+        } catch (Exception e) {
+            failure = e;
+        }
+        try {
+            for (FutureTask<R> task : tasks) {
+                try {
+                    results.add(getResult(task));
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    failure = addFailure(failure, e);
+                }
+            }
+        } catch (InterruptedException e) {
+            cancel(tasks);
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return results;
+    }
+
+    /**
+     * Run every call on executor
+     *
+     * @return first successful result
+     */
+    public static <R> R firstSuccess(List<? extends Callable<R>> calls, Executor executor) throws Exception {
+        return race(calls, 0, executor);
+    }
+
+    /**
+     * Run the calls on executor in order, starting the next one when no call completed
+     * within hedgeDelayMillis or when one failed
+     *
+     * @return first successful result
+     */
+    public static <R> R hedged(List<? extends Callable<R>> calls, long hedgeDelayMillis, Executor executor) throws Exception {
+        return race(calls, Math.max(1, TimeUnit.MILLISECONDS.toNanos(hedgeDelayMillis)), executor);
+    }
+
+    /**
+     * @param delayNanos : 0 to start every call at once
+     */
+    private static <R> R race(List<? extends Callable<R>> calls, long delayNanos, Executor executor) throws Exception {
+        BlockingQueue<Future<R>> completed = new LinkedBlockingQueue<>();
+        List<Future<R>> started = new ArrayList<>(calls.size());
+        Exception failure = null;
+        try {
+            int running = 0;
+            while (started.size() < calls.size() || running > 0) {
+                boolean startNext = started.size() < calls.size() && (delayNanos == 0 || running == 0);
+                Future<R> done = null;
+                if (!startNext) {
+                    done = started.size() < calls.size()
+                            ? completed.poll(delayNanos, TimeUnit.NANOSECONDS)
+                            : completed.take();
+                }
+                if (done == null) {
+                    //first call, or hedging the running ones
+                    started.add(start(calls.get(started.size()), completed, executor));
+                    running++;
+                    continue;
+                }
+                running--;
+                try {
+                    return getResult(done);
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    failure = addFailure(failure, e);
+                }
+                //no need to wait before replacing a failed call
+                if (delayNanos != 0 && started.size() < calls.size()) {
+                    started.add(start(calls.get(started.size()), completed, executor));
+                    running++;
+                }
+            }
+            throw failure;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        } finally {
+            cancel(started);
+        }
+    }
+
+    private static <R> Future<R> start(Callable<R> call, final BlockingQueue<Future<R>> completed, Executor executor) {
+        FutureTask<R> task = new FutureTask<R>(call) {
+            @Override
+            protected void done() {
+                completed.add(this);
+            }
+        };
+        executor.execute(task);
+        return task;
+    }
+
+    /**
+     * @return result of future, or the exception its call threw
+     */
+    private static <R> R getResult(Future<R> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw cause instanceof Exception ? (Exception) cause : e;
+        }
+    }
+
+    private static Exception addFailure(Exception failure, Exception e) {
+        if (failure == null) {
+            return e;
+        }
+        if (failure != e) {
+            failure.addSuppressed(e);
+        }
+        return failure;
+    }
+
+    private static void cancel(List<? extends Future<?>> futures) {
+        for (Future<?> future : futures) {
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * @return all the elements of parts, in order
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> List<E> concat(List<? extends Iterable<?>> parts) {
+        List<E> result = new ArrayList<>();
+        for (Iterable<?> part : parts) {
+            if (part instanceof Collection) {
+                result.addAll((Collection<E>) part);
+            } else if (part != null) {
+                for (Object element : part) {
+                    result.add((E) element);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return distinct elements of parts, in order
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> Set<E> union(List<? extends Collection<?>> parts) {
+        Set<E> result = new LinkedHashSet<>();
+        for (Collection<?> part : parts) {
+            if (part != null) {
+                result.addAll((Collection<E>) part);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return first non null result, null if none
+     */
+    public static <R> R firstNonNull(List<R> results) {
+        for (R result : results) {
+            if (result != null) {
+                return result;
+            }
+        }
+        return null;
+    }
+}
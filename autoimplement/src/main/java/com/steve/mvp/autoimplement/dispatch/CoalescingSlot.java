@@ -0,0 +1,54 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.steve.mvp.autoimplement.dispatch;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Latest pending call of a generated coalescing method. Only the call replacing an empty slot
+ * is dispatched, the task then runs whichever call is latest. No lock, one task per burst.
+ * Created by Steve Tchatchouang
+ */
+
+public class CoalescingSlot {
+    private final AtomicReference<Runnable> pending = new AtomicReference<>();
+    private final Runnable                  drain   = new Runnable() {
+        @Override
+        public void run() {
+            Runnable call = pending.getAndSet(null);
+            if (call != null) {
+                call.run();
+            }
+        }
+    };
+
+    /**
+     * Run call on executor, unless a call is already pending: call then replaces it.
+     * If executor rejects the task, the slot is emptied and the exception rethrown.
+     */
+    public void dispatch(Executor executor, Runnable call) {
+        if (pending.getAndSet(call) == null) {
+            try {
+                executor.execute(drain);
+            } catch (RuntimeException | Error e) {
+                //newer calls that replaced call were not dispatched either, they are dropped with it
+                pending.set(null);
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.steve.mvp.autoimplement.flight;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Calls in progress of a generated single flight method, by arguments.
+ * The first caller of a key runs the call on its thread, the callers arriving meanwhile
+ * wait for it and get the same result or exception, without allocating. A call is forgotten
+ * once it ends.
+ * Created by Steve Tchatchouang
+ */
+
+public class InFlightCalls {
+    private final ConcurrentMap<Object, Flight> flights = new ConcurrentHashMap<>();
+
+    /**
+     * @return result of call, or of the call in progress for key
+     */
+    public Object join(Object key, Callable<?> call) throws Exception {
+        Flight flight = null;
+        Flight running = flights.get(key);
+        if (running == null) {
+            flight = new Flight();
+            running = flights.putIfAbsent(key, flight);
+        }
+        if (running != null) {
+            try {
+                running.done.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw e;
+            }
+            return running.get();
+        }
+        try {
+            flight.result = call.call();
+        } catch (Exception | Error e) {
+            flight.failure = e;
+        } finally {
+            //removed first, callers arriving from now on start a new call
+            flights.remove(key, flight);
+            flight.done.countDown();
+        }
+        return flight.get();
+    }
+
+    /**
+     * @return number of calls in progress
+     */
+    public int size() {
+        return flights.size();
+    }
+
+    private static class Flight {
+        private final CountDownLatch done = new CountDownLatch(1);
+        //published by the latch
+        private Object    result;
+        private Throwable failure;
+
+        Object get() throws Exception {
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            if (failure != null) {
+                throw (Exception) failure;
+            }
+            return result;
+        }
+    }
+}
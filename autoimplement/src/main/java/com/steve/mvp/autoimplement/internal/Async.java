@@ -0,0 +1,40 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplement.internal;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * On an {@link ImplementationOf} field: for each delegated method xxx, also generate
+ * xxxAsync returning a CompletableFuture completed on an executor.
+ * xxxAsync is skipped, with a warning, when the class or the delegated interfaces
+ * already have a method with its signature.
+ * Created by Steve Tchatchouang
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.SOURCE)
+public @interface Async {
+
+    /**
+     * Name of a no argument method of the abstract class returning the Executor to use.
+     * Default is {@link com.steve.mvp.autoimplement.AutoImplExecutors#getDefault()}
+     */
+    String executor() default "";
+}
@@ -23,8 +23,47 @@ import java.lang.annotation.Target;
 
 /**
  * Created by Steve Tchatchouang on 24/03/2018
+ * Kept in class files: the registry processor is aggregating and incremental builds
+ * give it compiled classes too
  */
-@Retention(RetentionPolicy.SOURCE)
+@Retention(RetentionPolicy.CLASS)
 @Target(ElementType.TYPE)
 public @interface AutoImplement {
+
+    /**
+     * Generate a final implementation with final methods, the delegation can then be
+     * devirtualized and inlined (class hierarchy analysis, R8). The implementation
+     * cannot be extended anymore.
+     */
+    boolean finalImpl() default false;
+
+    /**
+     * Record calls and latency of each generated method in
+     * {@link com.steve.mvp.autoimplement.metrics.AutoImplMetrics}, when enabled at runtime
+     */
+    boolean metrics() default false;
+
+    /**
+     * Generate reset(), and static acquire(...) / release(instance) methods reusing up to
+     * {@link #poolSize()} released instances. acquire takes the constructor arguments:
+     * the no argument constructor, and constructors the abstract class has a matching
+     * onAcquire(...) method for, called on reused instances.
+     * reset() flushes batches, clears caches and the non private fields other than delegates,
+     * after calling the reset() of the abstract class if it has one. Cleared fields are not
+     * initialized again, so fields set by initializers or constructors are set up in onAcquire(...).
+     * {@link ImplementationOf} delegates are kept for the next acquire, thread local delegates
+     * are created again.
+     */
+    boolean pooled() default false;
+
+    /**
+     * Maximum number of released instances kept for reuse
+     */
+    int poolSize() default 16;
+
+    /**
+     * Order of the implementation in {@link com.steve.mvp.autoimplement.AutoImplWarmUp},
+     * higher priorities are loaded first
+     */
+    int warmUpPriority() default 0;
 }
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.steve.mvp.autoimplement.internal;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * On a void interface method with one parameter: generated implementations buffer the calls
+ * and pass them as a List to the batch method {@link #value()} of the delegate, once
+ * {@link #size()} calls are buffered or {@link #maxDelayMillis()} elapsed.
+ * Generated implementations get flushBatches() and closeBatches(), declare them abstract
+ * in the annotated class to call them through it.
+ * Created by Steve Tchatchouang
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.CLASS)
+public @interface Batch {
+
+    /**
+     * Method of the delegate receiving the buffered arguments, taking a List of them
+     */
+    String value();
+
+    /**
+     * Number of buffered calls sent at once
+     */
+    int size() default 64;
+
+    /**
+     * Longest time a call stays buffered, 0 to only send full batches and on flush
+     */
+    long maxDelayMillis() default 100;
+}
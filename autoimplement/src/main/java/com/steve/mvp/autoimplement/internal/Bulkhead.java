@@ -0,0 +1,50 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.steve.mvp.autoimplement.internal;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Limit the calls in progress to a delegate (on an {@link ImplementationOf} field) or to one
+ * of its methods (on an interface method). Limits are shared by all the instances of the
+ * generated class. Calls over the limit wait up to {@link #maxWaitMillis()}, then fail with
+ * {@link com.steve.mvp.autoimplement.limit.BulkheadFullException}.
+ * Limits are in {@link com.steve.mvp.autoimplement.limit.AutoImplLimits}.
+ * Created by Steve Tchatchouang
+ */
+@Target({ElementType.FIELD, ElementType.METHOD})
+@Retention(RetentionPolicy.CLASS)
+public @interface Bulkhead {
+
+    /**
+     * Maximum number of calls in progress
+     */
+    int maxConcurrent() default 16;
+
+    /**
+     * Time a call waits for a free slot, 0 to fail at once
+     */
+    long maxWaitMillis() default 0;
+
+    /**
+     * When set, the limit adapts between 1 and {@link #maxConcurrent()}: it grows while calls
+     * take less than this latency and shrinks when they take longer. 0 for a fixed limit.
+     */
+    long targetLatencyMillis() default 0;
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.steve.mvp.autoimplement.internal;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * On one of several {@link ImplementationOf} fields bound to the same interface: generated
+ * methods call all of these delegates (in field order) following {@link #value()}, instead
+ * of the first one only. Delegates are called on {@link #executor()}, losing calls are cancelled.
+ * Created by Steve Tchatchouang
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.SOURCE)
+public @interface Composite {
+    CompositePolicy value() default CompositePolicy.FAN_OUT;
+
+    /**
+     * With {@link CompositePolicy#HEDGED}, time to wait for the running delegates before
+     * starting the next one
+     */
+    long hedgeDelayMillis() default 50;
+
+    /**
+     * With {@link CompositePolicy#FAN_OUT}, name of a method of the abstract class merging
+     * the results: Object merge(String method, List&lt;?&gt; results).
+     * By default List, Collection and Iterable results are concatenated, Set results are
+     * merged and other results are the first non null one.
+     */
+    String merger() default "";
+
+    /**
+     * Name of a no argument method of the abstract class returning the Executor calling the
+     * delegates, default executor of AutoImplExecutors if empty
+     */
+    String executor() default "";
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.steve.mvp.autoimplement.internal;
+
+/**
+ * How a composite calls its delegates, see {@link Composite}
+ * Created by Steve Tchatchouang
+ */
+
+public enum CompositePolicy {
+    /**
+     * Call every delegate in parallel and merge their results, failing if one fails
+     */
+    FAN_OUT,
+    /**
+     * Call every delegate in parallel, the first successful result wins
+     */
+    FIRST_SUCCESS,
+    /**
+     * Call the delegates in order, starting the next one when the running ones take longer
+     * than {@link Composite#hedgeDelayMillis()} or fail. The first successful result wins.
+     */
+    HEDGED
+}
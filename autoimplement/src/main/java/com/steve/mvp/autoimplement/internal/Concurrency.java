@@ -0,0 +1,41 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.steve.mvp.autoimplement.internal;
+
+/**
+ * How generated methods guard the calls to a delegate, see {@link ImplementationOf#concurrency()}
+ * Created by Steve Tchatchouang
+ */
+
+public enum Concurrency {
+    /**
+     * Calls are forwarded as is, the delegate is thread safe or not shared
+     */
+    NONE,
+    /**
+     * Calls are serialized on a lock of the binding
+     */
+    MONITOR,
+    /**
+     * {@link ReadOnly} methods share a read lock, others take the write lock.
+     * Locks are not reentrant, the delegate must not call back into the implementation.
+     */
+    READ_WRITE,
+    /**
+     * Each thread calls its own delegate, created by {@link ImplementationOf#factory()}
+     */
+    THREAD_LOCAL
+}
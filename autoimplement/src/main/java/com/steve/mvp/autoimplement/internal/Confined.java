@@ -0,0 +1,39 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.steve.mvp.autoimplement.internal;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * On an {@link ImplementationOf} field: the void methods of the generated implementation run
+ * on the Executor returned by the method {@link #value()} of the abstract class (e.g. posting
+ * to the UI thread), in call order. Methods returning a value are still called directly.
+ * Pending calls of {@link Coalesce} methods collapse into the latest one.
+ * Created by Steve Tchatchouang
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.SOURCE)
+public @interface Confined {
+
+    /**
+     * Name of a no argument method of the abstract class returning the Executor of the
+     * confined thread, called on each dispatch
+     */
+    String value();
+}
@@ -29,4 +29,26 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.SOURCE)
 public @interface ImplementationOf {
     Class value();
+
+    /**
+     * Name of a no argument method of the abstract class creating the delegate.
+     * When set, the generated implementation creates the delegate on first call
+     * (double checked, no locking once created). The field must be volatile.
+     * When {@link #swappable()}, a delegate swapped in while the factory runs is kept.
+     * With {@link Concurrency#THREAD_LOCAL}, called once per thread instead.
+     */
+    String factory() default "";
+
+    /**
+     * How generated methods guard the calls to the delegate
+     */
+    Concurrency concurrency() default Concurrency.NONE;
+
+    /**
+     * When set, the generated implementation has a swapXxx(next) method atomically replacing
+     * the delegate and returning the previous one. Calls read the delegate once, with a single
+     * volatile read, calls in progress end on the previous delegate. The field must be volatile.
+     * Swapping clears the memoized results of the delegate methods.
+     */
+    boolean swappable() default false;
 }
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplement.internal;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * On an interface method without side effects: generated implementations cache the
+ * delegate results by arguments (equals/hashCode) in a bounded cache per instance.
+ * Hits and misses are in {@link com.steve.mvp.autoimplement.cache.AutoImplCaches}.
+ * Kept in class files so interfaces from other modules can be annotated.
+ * Created by Steve Tchatchouang
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.CLASS)
+public @interface Memoize {
+
+    /**
+     * Maximum number of cached results, beyond it entries are evicted
+     */
+    int maxSize() default 1024;
+
+    /**
+     * Time a result stays cached after being computed, 0 for no expiration
+     */
+    long expireAfterWriteMillis() default 0;
+}
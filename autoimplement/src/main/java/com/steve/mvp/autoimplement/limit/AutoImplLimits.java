@@ -0,0 +1,66 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.steve.mvp.autoimplement.limit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the limiters of {@link com.steve.mvp.autoimplement.internal.Bulkhead} delegates and methods
+ * Created by Steve Tchatchouang
+ */
+
+public final class AutoImplLimits {
+    private static final Map<String, CallLimiter> LIMITERS = new ConcurrentHashMap<>();
+
+    private AutoImplLimits() {
+    }
+
+    /**
+     * Called once per limited delegate or method, from static initializers
+     *
+     * @param name : delegate field or method signature
+     */
+    public static CallLimiter register(Class<?> owner, String name, int maxConcurrent, long maxWaitMillis,
+                                       long targetLatencyMillis) {
+        String key = owner.getName() + "." + name;
+        CallLimiter limiter = LIMITERS.get(key);
+        if (limiter == null) {
+            limiter = new CallLimiter(key, maxConcurrent, maxWaitMillis, targetLatencyMillis);
+            CallLimiter previous = LIMITERS.putIfAbsent(key, limiter);
+            if (previous != null) {
+                limiter = previous;
+            }
+        }
+        return limiter;
+    }
+
+    /**
+     * @return limiter registered as owner.name, null if none
+     */
+    public static CallLimiter get(Class<?> owner, String name) {
+        return LIMITERS.get(owner.getName() + "." + name);
+    }
+
+    /**
+     * @return all the limiters loaded so far
+     */
+    public static List<CallLimiter> getAll() {
+        return new ArrayList<>(LIMITERS.values());
+    }
+}
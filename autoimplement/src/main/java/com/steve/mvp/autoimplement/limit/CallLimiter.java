@@ -0,0 +1,180 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.steve.mvp.autoimplement.limit;
+
+import com.steve.mvp.autoimplement.metrics.StripedCounter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bound on the calls in progress, used by generated bulkhead methods.
+ * Free slots are taken with a CAS, only calls waiting for a slot lock.
+ * The adaptive limit grows by one per limit calls faster than the target latency, and
+ * shrinks by 10% on a slower call, at most once per calls started before the last decrease.
+ * Created by Steve Tchatchouang
+ */
+
+public class CallLimiter {
+    //fixed point limit, FRACTION per call
+    private static final long FRACTION = 1024;
+
+    private final String         name;
+    private final int            maxConcurrent;
+    private final long           maxWaitNanos;
+    private final long           targetLatencyNanos;
+    private final AtomicInteger  inFlight = new AtomicInteger();
+    private final AtomicInteger  waiting = new AtomicInteger();
+    private final AtomicLong     limit;
+    private final StripedCounter rejected = new StripedCounter();
+    private final Object         waitLock = new Object();
+
+    private volatile long lastDecrease;
+
+    /**
+     * @param targetLatencyMillis : 0 for a fixed limit
+     */
+    public CallLimiter(String name, int maxConcurrent, long maxWaitMillis, long targetLatencyMillis) {
+        this.name = name;
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(targetLatencyMillis);
+        this.limit = new AtomicLong(this.maxConcurrent * FRACTION);
+        this.lastDecrease = System.nanoTime();
+    }
+
+    /**
+     * Take a slot, waiting for one up to maxWaitMillis
+     *
+     * @return start time of the call, to give back to {@link #release(long)}
+     * @throws BulkheadFullException if no slot got free in time, or the thread was interrupted
+     */
+    public long acquire() {
+        if (tryAcquire()) {
+            return System.nanoTime();
+        }
+        if (maxWaitNanos > 0 && await()) {
+            return System.nanoTime();
+        }
+        rejected.increment();
+        throw new BulkheadFullException(name + " has " + getLimit() + " calls in progress");
+    }
+
+    /**
+     * Free the slot taken by the call started at start
+     */
+    public void release(long start) {
+        if (targetLatencyNanos > 0) {
+            adapt(start, System.nanoTime());
+        }
+        inFlight.decrementAndGet();
+        if (waiting.get() > 0) {
+            synchronized (waitLock) {
+                waitLock.notifyAll();
+            }
+        }
+    }
+
+    private boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= getLimit()) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private boolean await() {
+        long deadline = System.nanoTime() + maxWaitNanos;
+        waiting.incrementAndGet();
+        try {
+            synchronized (waitLock) {
+                while (!tryAcquire()) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(waitLock, remaining);
+                }
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    private void adapt(long start, long end) {
+        long current;
+        long next;
+        boolean decrease = end - start > targetLatencyNanos;
+        do {
+            current = limit.get();
+            if (decrease) {
+                //calls started before the last decrease already saw the old limit
+                if (start - lastDecrease < 0) {
+                    return;
+                }
+                next = Math.max(FRACTION, current - current / 10);
+            } else {
+                next = Math.min(maxConcurrent * FRACTION, current + FRACTION * FRACTION / current);
+            }
+            if (next == current) {
+                return;
+            }
+        } while (!limit.compareAndSet(current, next));
+        if (decrease) {
+            lastDecrease = end;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return current limit, maxConcurrent unless adaptive
+     */
+    public int getLimit() {
+        return (int) (limit.get() / FRACTION);
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return number of calls which failed for lack of slot
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    @Override
+    public String toString() {
+        return name + " limit=" + getLimit() + "/" + maxConcurrent + " inFlight=" + getInFlight()
+                + " rejected=" + getRejected();
+    }
+}
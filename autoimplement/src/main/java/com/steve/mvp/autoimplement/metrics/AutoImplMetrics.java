@@ -0,0 +1,79 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplement.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the metrics of implementations generated with
+ * {@code @AutoImplement(metrics = true)}.
+ * Recording is off unless the system property autoimplement.metrics is true when this
+ * class is initialized. Off, generated methods only test the {@link #ENABLED} constant.
+ * Created by Steve Tchatchouang
+ */
+
+public final class AutoImplMetrics {
+    public static final String PROPERTY = "autoimplement.metrics";
+    public static final boolean ENABLED = Boolean.getBoolean(PROPERTY);
+
+    //shared by all methods while recording is off, never registered
+    private static final MethodMetrics DISABLED = new MethodMetrics("", "");
+
+    private static final Map<String, MethodMetrics> METRICS = new ConcurrentHashMap<>();
+
+    private AutoImplMetrics() {
+    }
+
+    /**
+     * Called once per generated method, from static initializers
+     */
+    public static MethodMetrics register(Class<?> owner, String method) {
+        if (!ENABLED) {
+            return DISABLED;
+        }
+        String key = owner.getName() + "." + method;
+        MethodMetrics metrics = METRICS.get(key);
+        if (metrics == null) {
+            metrics = new MethodMetrics(owner.getName(), method);
+            MethodMetrics previous = METRICS.putIfAbsent(key, metrics);
+            if (previous != null) {
+                metrics = previous;
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * @return metrics of all the generated methods loaded so far
+     */
+    public static List<MethodMetrics> getAll() {
+        return new ArrayList<>(METRICS.values());
+    }
+
+    /**
+     * @return metrics of all generated methods, most called first
+     */
+    public static List<MethodMetrics> getHottest() {
+        List<MethodMetrics> all = getAll();
+        Collections.sort(all, (first, second) -> Long.compare(second.getCalls(), first.getCalls()));
+        return all;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplement.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latency histogram with power of two buckets in nanoseconds: bucket i counts the
+ * latencies in [2^i, 2^(i+1)). Recording is one atomic increment, no allocation.
+ * Buckets are striped by thread like {@link StripedCounter}, each stripe padded
+ * so concurrent recordings do not share a cache line.
+ * Created by Steve Tchatchouang
+ */
+
+public class LatencyHistogram {
+    public static final  int BUCKETS = 64;
+    private static final int STRIDE  = BUCKETS + 8;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(StripedCounter.STRIPES * STRIDE);
+
+    public void record(long nanos) {
+        buckets.incrementAndGet(StripedCounter.getStripe() * STRIDE + getBucket(nanos));
+    }
+
+    /**
+     * @return the sum of the stripes, not an atomic snapshot under concurrent updates
+     */
+    public long getCount(int bucket) {
+        long count = 0;
+        for (int stripe = 0; stripe < StripedCounter.STRIPES; stripe++) {
+            count += buckets.get(stripe * STRIDE + bucket);
+        }
+        return count;
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += getCount(i);
+        }
+        return count;
+    }
+
+    /**
+     * @param percentile : between 0 and 100
+     * @return upper bound in nanoseconds of the bucket holding the percentile, 0 if empty
+     */
+    public long getPercentile(double percentile) {
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = getCount(i);
+            count += counts[i];
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(count * percentile / 100d);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank && counts[i] > 0) {
+                return getUpperBound(i);
+            }
+        }
+        return getUpperBound(BUCKETS - 1);
+    }
+
+    static int getBucket(long nanos) {
+        return nanos <= 0 ? 0 : 63 - Long.numberOfLeadingZeros(nanos);
+    }
+
+    static long getUpperBound(int bucket) {
+        return bucket >= 62 ? Long.MAX_VALUE : (1L << (bucket + 1)) - 1;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplement.metrics;
+
+/**
+ * Calls and latencies of one generated delegate method
+ * Created by Steve Tchatchouang
+ */
+
+public class MethodMetrics {
+    private final String           owner;
+    private final String           method;
+    private final StripedCounter   calls      = new StripedCounter();
+    private final StripedCounter   totalNanos = new StripedCounter();
+    private final LatencyHistogram latencies  = new LatencyHistogram();
+
+    MethodMetrics(String owner, String method) {
+        this.owner = owner;
+        this.method = method;
+    }
+
+    /**
+     * Called by generated methods after each delegate call
+     */
+    public void record(long nanos) {
+        calls.increment();
+        totalNanos.add(nanos);
+        latencies.record(nanos);
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    public LatencyHistogram getLatencies() {
+        return latencies;
+    }
+
+    @Override
+    public String toString() {
+        long calls = getCalls();
+        return owner + "." + method
+                + " calls=" + calls
+                + " mean=" + (calls == 0 ? 0 : getTotalNanos() / calls) + "ns"
+                + " p50<=" + latencies.getPercentile(50) + "ns"
+                + " p99<=" + latencies.getPercentile(99) + "ns";
+    }
+}
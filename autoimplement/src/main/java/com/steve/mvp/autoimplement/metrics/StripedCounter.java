@@ -0,0 +1,58 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplement.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counter spread over cells picked by thread, concurrent increments rarely hit the same cell.
+ * Cells are 8 longs apart so they do not share a cache line.
+ * Created by Steve Tchatchouang
+ */
+
+public class StripedCounter {
+    static final         int STRIPES = 16;
+    private static final int PADDING = 8;
+
+    private final AtomicLongArray cells = new AtomicLongArray(STRIPES * PADDING);
+
+    public void add(long value) {
+        cells.getAndAdd(getStripe() * PADDING, value);
+    }
+
+    /**
+     * @return stripe of the current thread, between 0 and STRIPES - 1
+     */
+    static int getStripe() {
+        return (int) (Thread.currentThread().getId() & (STRIPES - 1));
+    }
+
+    public void increment() {
+        add(1);
+    }
+
+    /**
+     * @return the sum of all cells, not an atomic snapshot under concurrent updates
+     */
+    public long sum() {
+        long sum = 0;
+        for (int i = 0; i < STRIPES; i++) {
+            sum += cells.get(i * PADDING);
+        }
+        return sum;
+    }
+}
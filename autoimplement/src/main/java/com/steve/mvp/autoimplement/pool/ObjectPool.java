@@ -0,0 +1,83 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.steve.mvp.autoimplement.pool;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded pool of released instances used by generated pooled classes.
+ * Slots are taken and filled with a CAS starting at a slot picked by thread, nothing is
+ * allocated. Instances released to a full pool are dropped.
+ * Created by Steve Tchatchouang
+ */
+
+public class ObjectPool<T> {
+    private final AtomicReferenceArray<T> slots;
+
+    public ObjectPool(int size) {
+        this.slots = new AtomicReferenceArray<>(Math.max(1, size));
+    }
+
+    /**
+     * @return a released instance, null if none
+     */
+    public T poll() {
+        int length = slots.length();
+        int start = start(length);
+        for (int i = 0; i < length; i++) {
+            int index = (start + i) % length;
+            if (slots.get(index) != null) {
+                T instance = slots.getAndSet(index, null);
+                if (instance != null) {
+                    return instance;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return false if the pool is full, instance is then dropped
+     */
+    public boolean offer(T instance) {
+        int length = slots.length();
+        int start = start(length);
+        for (int i = 0; i < length; i++) {
+            int index = (start + i) % length;
+            if (slots.get(index) == null && slots.compareAndSet(index, null, instance)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return number of pooled instances
+     */
+    public int size() {
+        int size = 0;
+        for (int i = 0; i < slots.length(); i++) {
+            if (slots.get(i) != null) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    private static int start(int length) {
+        return (int) (Thread.currentThread().getId() % length);
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplement;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.InvocationTargetException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created by Steve Tchatchouang
+ */
+
+public class AutoImplUtilsTest {
+
+    private static final AutoImplRegistry REGISTRY = new AutoImplRegistry() {
+        @Override
+        public AutoImplFactory<?>[] factories() {
+            return new AutoImplFactory<?>[]{new RegisteredFactory()};
+        }
+
+        @Override
+        public String[] implementations() {
+            return new String[0];
+        }
+
+        @Override
+        public int[] priorities() {
+            return new int[0];
+        }
+    };
+
+    @BeforeClass
+    public static void register() {
+        AutoImplUtils.register(REGISTRY);
+    }
+
+    @Test
+    public void registeredRegistryIsListed() {
+        assertTrue(AutoImplUtils.getRegistries().contains(REGISTRY));
+    }
+
+    @Test
+    public void buildsWithTheRegisteredFactory() {
+        Registered registered = AutoImplUtils.build(Registered.class, new Class[]{String.class}, new Object[]{"factory"});
+        assertEquals("factory", registered.name);
+    }
+
+    @Test
+    public void fallsBackToReflectionWhenTheFactoryHasNoConstructor() {
+        try {
+            AutoImplUtils.build(Registered.class, null, null);
+            fail();
+        } catch (AutoImplException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("No generated implementation"));
+            assertTrue(e.getCause() instanceof ClassNotFoundException);
+        }
+    }
+
+    @Test
+    public void wrapsFactoryConstructorFailures() {
+        try {
+            AutoImplUtils.build(Registered.class, new Class[]{String.class}, new Object[]{""});
+            fail();
+        } catch (AutoImplException e) {
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+    }
+
+    @Test
+    public void wrapsFactoryArgumentMismatches() {
+        try {
+            AutoImplUtils.build(Registered.class, new Class[]{String.class}, new Object[]{42});
+            fail();
+        } catch (AutoImplException e) {
+            assertTrue(e.getCause() instanceof ClassCastException);
+        }
+    }
+
+    @Test
+    public void buildsWithReflection() {
+        assertEquals("default", AutoImplUtils.build(Sample.class, null, null).getName());
+        assertEquals("default", AutoImplUtils.build(Sample.class, new Class[0], new Object[0]).getName());
+        Sample sample = AutoImplUtils.build(Sample.class, new Class[]{String.class}, new Object[]{"reflection"});
+        assertEquals(Sample_Impl.class, sample.getClass());
+        assertEquals("reflection", sample.getName());
+    }
+
+    @Test
+    public void wrapsReflectiveConstructorFailures() {
+        try {
+            AutoImplUtils.build(Sample.class, new Class[]{String.class}, new Object[]{""});
+            fail();
+        } catch (AutoImplException e) {
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+    }
+
+    @Test
+    public void wrapsReflectiveArgumentMismatches() {
+        try {
+            AutoImplUtils.build(Sample.class, new Class[]{String.class}, new Object[]{42});
+            fail();
+        } catch (AutoImplException e) {
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+    }
+
+    @Test
+    public void wrapsReflectiveFailuresOnNullArguments() {
+        try {
+            AutoImplUtils.build(Sample.class, new Class[]{String.class}, new Object[]{null});
+            fail();
+        } catch (AutoImplException e) {
+            //thrown by the constructor
+            assertTrue(e.getMessage(), e.getMessage().endsWith("failed"));
+            assertTrue(e.getCause() instanceof NullPointerException);
+        }
+    }
+
+    @Test
+    public void wrapsReflectiveArgumentCountMismatches() {
+        try {
+            AutoImplUtils.build(Sample.class, new Class[]{String.class}, new Object[0]);
+            fail();
+        } catch (AutoImplException e) {
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+    }
+
+    @Test(expected = AutoImplException.class)
+    public void failsOnMissingConstructor() {
+        AutoImplUtils.build(Sample.class, new Class[]{Integer.class}, new Object[]{1});
+    }
+
+    @Test
+    public void reusesResolvedConstructors() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals("name" + i, AutoImplUtils.build(Sample.class, new Class[]{String.class}, new Object[]{"name" + i}).getName());
+        }
+    }
+
+    @Test
+    public void reflectiveCacheLetsClassesBeUnloaded() throws Exception {
+        WeakReference<ClassLoader> loader = buildInIsolatedLoader();
+        for (int i = 0; i < 50 && loader.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull("the class loader of a built class is still reachable", loader.get());
+    }
+
+    /**
+     * Build a Sample defined by a throwaway class loader, through the reflective path
+     */
+    @SuppressWarnings("unchecked")
+    private static WeakReference<ClassLoader> buildInIsolatedLoader() throws Exception {
+        ClassLoader loader = new IsolatedLoader(Sample.class.getName(), Sample_Impl.class.getName());
+        Class<Object> sample = (Class<Object>) loader.loadClass(Sample.class.getName());
+        Object instance = AutoImplUtils.build(sample, new Class[]{String.class}, new Object[]{"isolated"});
+        assertNotSame(Sample_Impl.class, instance.getClass());
+        assertEquals(Sample_Impl.class.getName(), instance.getClass().getName());
+        return new WeakReference<>(loader);
+    }
+
+    public abstract static class Registered {
+        final String name;
+
+        Registered(String name) {
+            if (name.isEmpty()) {
+                throw new IllegalArgumentException("empty name");
+            }
+            this.name = name;
+        }
+    }
+
+    /**
+     * Written as the factories AutoImplementProcessor generates, for the String constructor only
+     */
+    private static class RegisteredFactory implements AutoImplFactory<Registered> {
+        @Override
+        public Class<Registered> type() {
+            return Registered.class;
+        }
+
+        @Override
+        public Registered create(Class[] constructorsType, Object[] constructorParams) throws InvocationTargetException {
+            if (constructorsType != null && constructorsType.length == 1 && constructorsType[0] == String.class) {
+                String name = (String) constructorParams[0];
+                try {
+                    return new Registered(name) {
+                    };
+                } catch (Throwable e) {
+                    throw new InvocationTargetException(e);
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Defines its own copy of some test classes, the others come from the test class loader
+     */
+    private static class IsolatedLoader extends ClassLoader {
+        private final String[] names;
+
+        IsolatedLoader(String... names) {
+            super(AutoImplUtilsTest.class.getClassLoader());
+            this.names = names;
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            for (String isolated : names) {
+                if (isolated.equals(name)) {
+                    synchronized (getClassLoadingLock(name)) {
+                        Class<?> loaded = findLoadedClass(name);
+                        return loaded != null ? loaded : define(name);
+                    }
+                }
+            }
+            return super.loadClass(name, resolve);
+        }
+
+        private Class<?> define(String name) throws ClassNotFoundException {
+            try (InputStream in = getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                byte[] buffer = new byte[4096];
+                for (int read; (read = in.read(buffer)) != -1; ) {
+                    bytes.write(buffer, 0, read);
+                }
+                return defineClass(name, bytes.toByteArray(), 0, bytes.size());
+            } catch (IOException e) {
+                throw new ClassNotFoundException(name, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplement;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created by Steve Tchatchouang
+ */
+
+public class AutoImplWarmUpTest {
+    //above the priorities of the other registries
+    private static final int MIN_PRIORITY = 1000;
+
+    private static volatile Thread  listingThread;
+    private static volatile boolean initialized;
+
+    static class First {
+        static {
+            initialized = true;
+        }
+    }
+
+    static class Second {
+    }
+
+    static class Skipped {
+    }
+
+    @BeforeClass
+    public static void register() {
+        AutoImplUtils.register(new AutoImplRegistry() {
+            @Override
+            public AutoImplFactory<?>[] factories() {
+                return new AutoImplFactory<?>[0];
+            }
+
+            @Override
+            public String[] implementations() {
+                listingThread = Thread.currentThread();
+                return new String[]{First.class.getName(), "sample.Missing_Impl", Second.class.getName(), Skipped.class.getName()};
+            }
+
+            @Override
+            public int[] priorities() {
+                return new int[]{MIN_PRIORITY + 2, MIN_PRIORITY + 1, MIN_PRIORITY, MIN_PRIORITY - 1};
+            }
+        });
+    }
+
+    @Test
+    public void loadsImplementationsAboveMinPriority() throws Exception {
+        AutoImplWarmUp warmUp = AutoImplWarmUp.start(2, MIN_PRIORITY);
+        AutoImplWarmUp.Report report = warmUp.await(5, TimeUnit.SECONDS);
+        assertNotNull(report);
+        assertTrue(warmUp.isDone());
+        assertTrue(initialized);
+
+        Set<String> loaded = new HashSet<>();
+        long previous = Long.MAX_VALUE;
+        for (AutoImplWarmUp.Entry entry : report.getEntries()) {
+            loaded.add(entry.getClassName());
+            assertTrue(entry.getPriority() >= MIN_PRIORITY);
+            //slowest first
+            assertTrue(entry.getNanos() <= previous);
+            previous = entry.getNanos();
+        }
+        assertEquals(new HashSet<>(Arrays.asList(First.class.getName(), "sample.Missing_Impl",
+                Second.class.getName())), loaded);
+        assertEquals(1, report.getFailures());
+    }
+
+    @Test
+    public void registriesAreListedByAWorker() throws Exception {
+        AutoImplWarmUp warmUp = AutoImplWarmUp.start(1, MIN_PRIORITY);
+        assertNotNull(warmUp.await(5, TimeUnit.SECONDS));
+        assertNotSame(Thread.currentThread(), listingThread);
+        assertTrue(listingThread.getName(), listingThread.getName().startsWith("autoimplement-warmup-"));
+    }
+
+    @Test
+    public void warmUpWithNothingToLoadEnds() throws Exception {
+        AutoImplWarmUp warmUp = AutoImplWarmUp.start(4, Integer.MAX_VALUE);
+        AutoImplWarmUp.Report report = warmUp.await(5, TimeUnit.SECONDS);
+        assertNotNull(report);
+        assertTrue(report.getEntries().isEmpty());
+        assertEquals(0, report.getFailures());
+    }
+}
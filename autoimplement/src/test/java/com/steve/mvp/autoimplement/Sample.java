@@ -0,0 +1,41 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplement;
+
+/**
+ * Abstract class built with reflection in tests, see Sample_Impl
+ * Created by Steve Tchatchouang
+ */
+
+public abstract class Sample {
+    private final String name;
+
+    public Sample() {
+        this("default");
+    }
+
+    public Sample(String name) {
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("empty name");
+        }
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
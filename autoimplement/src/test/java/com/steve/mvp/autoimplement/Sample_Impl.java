@@ -0,0 +1,33 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplement;
+
+/**
+ * Written as AutoImplementProcessor generates it, without the factory
+ * Created by Steve Tchatchouang
+ */
+
+public class Sample_Impl extends Sample {
+
+    public Sample_Impl() {
+        super();
+    }
+
+    public Sample_Impl(String name) {
+        super(name);
+    }
+}
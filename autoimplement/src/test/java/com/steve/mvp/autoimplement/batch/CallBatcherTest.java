@@ -0,0 +1,175 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplement.batch;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created by Steve Tchatchouang
+ */
+
+public class CallBatcherTest {
+
+    @Test
+    public void sendsFullBatchesInOrder() {
+        final List<List<Integer>> batches = new ArrayList<>();
+        CallBatcher<Integer> batcher = new CallBatcher<>(3, 0, batches::add);
+        for (int i = 0; i < 7; i++) {
+            batcher.add(i);
+        }
+        assertEquals(Arrays.asList(Arrays.asList(0, 1, 2), Arrays.asList(3, 4, 5)), batches);
+        assertEquals(1, batcher.pending());
+        batcher.flush();
+        assertEquals(Collections.singletonList(6), batches.get(2));
+        assertEquals(0, batcher.pending());
+    }
+
+    @Test
+    public void sendsDelayedBatches() throws Exception {
+        final CountDownLatch sent = new CountDownLatch(1);
+        CallBatcher<Integer> batcher = new CallBatcher<>(100, 10, calls -> sent.countDown());
+        batcher.add(1);
+        assertTrue(sent.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void sendsCallsAloneOnceClosed() {
+        final List<List<Integer>> batches = new ArrayList<>();
+        CallBatcher<Integer> batcher = new CallBatcher<>(10, 0, batches::add);
+        batcher.add(1);
+        batcher.close();
+        batcher.add(2);
+        assertEquals(Arrays.asList(Collections.singletonList(1), Collections.singletonList(2)), batches);
+    }
+
+    @Test
+    public void concurrentAddsAreSentOnceAndOneBatchAtATime() throws Exception {
+        final int threads = 8;
+        final int calls = 20000;
+        final int size = 16;
+        final AtomicBoolean sending = new AtomicBoolean();
+        final AtomicReference<String> failure = new AtomicReference<>();
+        final List<Integer> received = new ArrayList<>();
+        final CallBatcher<Integer> batcher = new CallBatcher<>(size, 0, batch -> {
+            if (!sending.compareAndSet(false, true)) {
+                failure.set("concurrent batches");
+            }
+            if (batch.size() > size) {
+                failure.set("batch of " + batch.size());
+            }
+            received.addAll(batch);
+            sending.set(false);
+        });
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> adders = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            final int thread = i;
+            Thread adder = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int call = 0; call < calls; call++) {
+                    batcher.add(thread * calls + call);
+                }
+            });
+            adder.start();
+            adders.add(adder);
+        }
+        start.countDown();
+        for (Thread adder : adders) {
+            adder.join();
+        }
+        batcher.flush();
+
+        assertNull(failure.get());
+        assertEquals(threads * calls, received.size());
+        //each thread calls in order, each once
+        int[] next = new int[threads];
+        for (int call : received) {
+            int thread = call / calls;
+            assertEquals(thread * calls + next[thread], call);
+            next[thread]++;
+        }
+        assertEquals(0, batcher.pending());
+    }
+
+    @Test
+    public void addersDoNotWaitForASend() throws Exception {
+        final CountDownLatch sinking = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<Integer> received = Collections.synchronizedList(new ArrayList<Integer>());
+        final CallBatcher<Integer> batcher = new CallBatcher<>(1, 0, batch -> {
+            sinking.countDown();
+            try {
+                assertTrue(release.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+            received.addAll(batch);
+        });
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> sender = executor.submit(() -> batcher.add(1));
+            assertTrue(sinking.await(5, TimeUnit.SECONDS));
+            //full batch, sent by the thread already sending
+            batcher.add(2);
+            release.countDown();
+            sender.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(Arrays.asList(1, 2), received);
+    }
+
+    @Test
+    public void batchTheSinkThrowsOnIsSentAgain() {
+        final List<List<Integer>> batches = new ArrayList<>();
+        final AtomicBoolean fail = new AtomicBoolean(true);
+        CallBatcher<Integer> batcher = new CallBatcher<>(2, 0, batch -> {
+            if (fail.getAndSet(false)) {
+                throw new IllegalStateException("offline");
+            }
+            batches.add(batch);
+        });
+        batcher.add(1);
+        try {
+            batcher.add(2);
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals(2, batcher.pending());
+        }
+        batcher.add(3);
+        batcher.flush();
+        assertEquals(Arrays.asList(Arrays.asList(1, 2), Collections.singletonList(3)), batches);
+    }
+}
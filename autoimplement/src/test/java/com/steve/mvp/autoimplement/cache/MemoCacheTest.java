@@ -0,0 +1,113 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplement.cache;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created by Steve Tchatchouang
+ */
+
+public class MemoCacheTest {
+
+    @Test
+    public void cachesResultsAndNull() {
+        CacheStats stats = new CacheStats("Owner", "method");
+        MemoCache cache = new MemoCache(10, 0, stats);
+        assertSame(MemoCache.MISS, cache.get("key"));
+        cache.put("key", "value");
+        cache.put("null", null);
+        assertEquals("value", cache.get("key"));
+        assertNull(cache.get("null"));
+        assertEquals(2, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(2d / 3, stats.getHitRate(), 0);
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertSame(MemoCache.MISS, cache.get("key"));
+    }
+
+    @Test
+    public void resultsComputedBeforeAClearAreNotKept() {
+        MemoCache cache = new MemoCache(10, 0, new CacheStats("Owner", "method"));
+        long generation = cache.getGeneration();
+        cache.clear();
+        cache.put("key", "stale", generation);
+        assertSame(MemoCache.MISS, cache.get("key"));
+
+        cache.put("key", "value", cache.getGeneration());
+        assertEquals("value", cache.get("key"));
+    }
+
+    @Test
+    public void expiresAfterWrite() throws Exception {
+        MemoCache cache = new MemoCache(10, 20, new CacheStats("Owner", "method"));
+        cache.put("key", "value");
+        assertEquals("value", cache.get("key"));
+        Thread.sleep(40);
+        assertSame(MemoCache.MISS, cache.get("key"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void evictsDownToNinetyPercent() {
+        CacheStats stats = new CacheStats("Owner", "method");
+        MemoCache cache = new MemoCache(100, 0, stats);
+        for (int i = 0; i <= 100; i++) {
+            cache.put(i, i);
+        }
+        assertEquals(90, cache.size());
+        assertEquals(11, stats.getEvictions());
+    }
+
+    @Test
+    public void staysBoundedUnderConcurrentWrites() throws Exception {
+        final MemoCache cache = new MemoCache(64, 0, new CacheStats("Owner", "method"));
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> writers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            final int offset = i * 10000;
+            Thread writer = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int key = 0; key < 10000; key++) {
+                    cache.put(offset + key, key);
+                    Object value = cache.get(offset + key);
+                    assertTrue(value == MemoCache.MISS || value.equals(key));
+                }
+            });
+            writer.start();
+            writers.add(writer);
+        }
+        start.countDown();
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        //a writer can add its entry while another one evicts
+        assertTrue(String.valueOf(cache.size()), cache.size() <= 64 + writers.size());
+    }
+}
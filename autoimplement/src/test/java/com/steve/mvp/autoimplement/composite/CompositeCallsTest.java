@@ -0,0 +1,145 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplement.composite;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created by Steve Tchatchouang
+ */
+
+public class CompositeCallsTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void fanOutReturnsResultsInOrder() throws Exception {
+        List<Callable<String>> calls = Arrays.asList(() -> "a", () -> {
+            Thread.sleep(20);
+            return "b";
+        }, () -> "c");
+        assertEquals(Arrays.asList("a", "b", "c"), CompositeCalls.fanOut(calls, executor));
+    }
+
+    @Test
+    public void fanOutRethrowsTheFirstFailure() throws Exception {
+        final IOException first = new IOException("first");
+        final IllegalStateException second = new IllegalStateException("second");
+        List<Callable<String>> calls = Arrays.asList(() -> {
+            throw first;
+        }, () -> "b", () -> {
+            throw second;
+        });
+        try {
+            CompositeCalls.fanOut(calls, executor);
+            fail();
+        } catch (IOException e) {
+            assertSame(first, e);
+            assertArrayEquals(new Throwable[]{second}, e.getSuppressed());
+        }
+    }
+
+    @Test
+    public void firstSuccessSkipsFailures() throws Exception {
+        List<Callable<String>> calls = Arrays.asList(() -> {
+            throw new IOException("down");
+        }, () -> "up");
+        assertEquals("up", CompositeCalls.firstSuccess(calls, executor));
+    }
+
+    @Test
+    public void firstSuccessFailsWhenAllFail() throws Exception {
+        List<Callable<String>> calls = Arrays.asList(() -> {
+            throw new IOException("first");
+        }, () -> {
+            throw new IOException("second");
+        });
+        try {
+            CompositeCalls.firstSuccess(calls, executor);
+            fail();
+        } catch (IOException e) {
+            assertEquals(1, e.getSuppressed().length);
+        }
+    }
+
+    @Test
+    public void hedgedStartsTheNextCallAfterTheDelay() throws Exception {
+        final CountDownLatch cancelled = new CountDownLatch(1);
+        List<Callable<String>> calls = Arrays.asList(() -> {
+            try {
+                Thread.sleep(10000);
+                return "slow";
+            } catch (InterruptedException e) {
+                //losing calls are cancelled
+                cancelled.countDown();
+                throw e;
+            }
+        }, () -> "backup");
+        assertEquals("backup", CompositeCalls.hedged(calls, 10, executor));
+        assertTrue(cancelled.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void hedgedDoesNotStartTheNextCallWhenTheFirstIsFast() throws Exception {
+        final AtomicBoolean backup = new AtomicBoolean();
+        List<Callable<String>> calls = Arrays.asList(() -> "fast", () -> {
+            backup.set(true);
+            return "backup";
+        });
+        assertEquals("fast", CompositeCalls.hedged(calls, 1000, executor));
+        assertFalse(backup.get());
+    }
+
+    @Test
+    public void hedgedReplacesFailedCallsAtOnce() throws Exception {
+        List<Callable<String>> calls = Arrays.asList(() -> {
+            throw new IOException("down");
+        }, () -> "backup");
+        long start = System.nanoTime();
+        assertEquals("backup", CompositeCalls.hedged(calls, 10000, executor));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+    }
+
+    @Test
+    public void mergesResults() {
+        assertEquals(Arrays.asList(1, 2, 2, 3), CompositeCalls.concat(Arrays.asList(Arrays.asList(1, 2), null, Arrays.asList(2, 3))));
+        assertEquals(new LinkedHashSet<>(Arrays.asList(1, 2, 3)),
+                CompositeCalls.union(Arrays.asList(Arrays.asList(1, 2), null, Arrays.asList(2, 3))));
+        assertEquals("b", CompositeCalls.firstNonNull(Arrays.asList(null, "b", "c")));
+        assertNull(CompositeCalls.firstNonNull(Collections.singletonList(null)));
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplement.dispatch;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created by Steve Tchatchouang
+ */
+
+public class CoalescingSlotTest {
+    private final List<Runnable> tasks = new ArrayList<>();
+    private final List<String>   calls = new ArrayList<>();
+    private final Executor       queue = tasks::add;
+
+    @Test
+    public void pendingCallsAreReplaced() {
+        CoalescingSlot slot = new CoalescingSlot();
+        slot.dispatch(queue, () -> calls.add("first"));
+        slot.dispatch(queue, () -> calls.add("second"));
+        slot.dispatch(queue, () -> calls.add("third"));
+        assertEquals(1, tasks.size());
+        runTasks();
+        assertEquals(1, calls.size());
+        assertEquals("third", calls.get(0));
+    }
+
+    @Test
+    public void callsAfterTheTaskRanAreDispatchedAgain() {
+        CoalescingSlot slot = new CoalescingSlot();
+        slot.dispatch(queue, () -> calls.add("first"));
+        runTasks();
+        slot.dispatch(queue, () -> calls.add("second"));
+        assertEquals(1, tasks.size());
+        runTasks();
+        assertEquals(2, calls.size());
+        assertEquals("second", calls.get(1));
+    }
+
+    @Test
+    public void rejectedCallsDoNotBlockTheSlot() {
+        CoalescingSlot slot = new CoalescingSlot();
+        Executor rejecting = task -> {
+            throw new RejectedExecutionException("shut down");
+        };
+        try {
+            slot.dispatch(rejecting, () -> calls.add("rejected"));
+            fail();
+        } catch (RejectedExecutionException expected) {
+            assertTrue(calls.isEmpty());
+        }
+        slot.dispatch(queue, () -> calls.add("next"));
+        assertEquals(1, tasks.size());
+        runTasks();
+        assertEquals(1, calls.size());
+        assertEquals("next", calls.get(0));
+    }
+
+    private void runTasks() {
+        List<Runnable> pending = new ArrayList<>(tasks);
+        tasks.clear();
+        for (Runnable task : pending) {
+            task.run();
+        }
+    }
+}
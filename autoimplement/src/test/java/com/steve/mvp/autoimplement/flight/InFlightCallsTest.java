@@ -0,0 +1,149 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplement.flight;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created by Steve Tchatchouang
+ */
+
+public class InFlightCallsTest {
+
+    @Test
+    public void concurrentCallersShareTheCall() throws Exception {
+        final InFlightCalls flights = new InFlightCalls();
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+        Caller leader = Caller.start(flights, "key", () -> {
+            calls.incrementAndGet();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return "result";
+        });
+        waitUntilWaiting(leader);
+        List<Caller> followers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            followers.add(Caller.start(flights, "key", () -> {
+                calls.incrementAndGet();
+                return "other";
+            }));
+        }
+        for (Caller follower : followers) {
+            waitUntilWaiting(follower);
+        }
+        //another key does not wait
+        assertEquals("alone", flights.join("other key", () -> "alone"));
+        release.countDown();
+
+        assertEquals("result", leader.get());
+        for (Caller follower : followers) {
+            assertEquals("result", follower.get());
+        }
+        assertEquals(1, calls.get());
+        assertEquals(0, flights.size());
+    }
+
+    @Test
+    public void failuresAreShared() throws Exception {
+        final InFlightCalls flights = new InFlightCalls();
+        final CountDownLatch release = new CountDownLatch(1);
+        Caller leader = Caller.start(flights, "key", () -> {
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            throw new IOException("offline");
+        });
+        waitUntilWaiting(leader);
+        Caller follower = Caller.start(flights, "key", () -> "not called");
+        waitUntilWaiting(follower);
+        release.countDown();
+
+        for (Caller caller : new Caller[]{leader, follower}) {
+            try {
+                caller.get();
+                fail();
+            } catch (IOException e) {
+                assertEquals("offline", e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void callsAreForgottenOnceEnded() throws Exception {
+        InFlightCalls flights = new InFlightCalls();
+        assertEquals(1, flights.join("key", () -> 1));
+        assertEquals(2, flights.join("key", () -> 2));
+        assertEquals(0, flights.size());
+    }
+
+    /**
+     * Wait until caller is blocked, in its call or on the call in progress
+     */
+    private static void waitUntilWaiting(Thread caller) throws InterruptedException {
+        for (int i = 0; i < 500 && caller.getState() != Thread.State.WAITING
+                && caller.getState() != Thread.State.TIMED_WAITING; i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(caller.getState().toString(), caller.isAlive());
+    }
+
+    private static class Caller extends Thread {
+        private final InFlightCalls flights;
+        private final Object        key;
+        private final Callable<?>   call;
+        private volatile Object     result;
+        private volatile Exception  failure;
+
+        private Caller(InFlightCalls flights, Object key, Callable<?> call) {
+            this.flights = flights;
+            this.key = key;
+            this.call = call;
+        }
+
+        static Caller start(InFlightCalls flights, Object key, Callable<?> call) {
+            Caller caller = new Caller(flights, key, call);
+            caller.start();
+            return caller;
+        }
+
+        @Override
+        public void run() {
+            try {
+                result = flights.join(key, call);
+            } catch (Exception e) {
+                failure = e;
+            }
+        }
+
+        Object get() throws Exception {
+            join(5000);
+            assertFalse(isAlive());
+            if (failure != null) {
+                throw failure;
+            }
+            return result;
+        }
+    }
+}
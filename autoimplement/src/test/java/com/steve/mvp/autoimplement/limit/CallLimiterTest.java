@@ -0,0 +1,125 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplement.limit;
+
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created by Steve Tchatchouang
+ */
+
+public class CallLimiterTest {
+
+    @Test
+    public void callsOverTheLimitAreRejected() {
+        CallLimiter limiter = new CallLimiter("test", 2, 0, 0);
+        long first = limiter.acquire();
+        limiter.acquire();
+        try {
+            limiter.acquire();
+            fail();
+        } catch (BulkheadFullException e) {
+            assertEquals("test has 2 calls in progress", e.getMessage());
+        }
+        assertEquals(2, limiter.getInFlight());
+        assertEquals(1, limiter.getRejected());
+
+        limiter.release(first);
+        limiter.acquire();
+        assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    public void waitingCallsTakeReleasedSlots() throws Exception {
+        final CallLimiter limiter = new CallLimiter("test", 1, 5000, 0);
+        long first = limiter.acquire();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Long> waiting = executor.submit(limiter::acquire);
+            Thread.sleep(50);
+            assertFalse(waiting.isDone());
+            limiter.release(first);
+            waiting.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, limiter.getInFlight());
+        assertEquals(0, limiter.getRejected());
+    }
+
+    @Test
+    public void waitingCallsGiveUpAfterMaxWait() {
+        CallLimiter limiter = new CallLimiter("test", 1, 20, 0);
+        limiter.acquire();
+        long start = System.nanoTime();
+        try {
+            limiter.acquire();
+            fail();
+        } catch (BulkheadFullException e) {
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20));
+        }
+        assertEquals(1, limiter.getRejected());
+    }
+
+    @Test
+    public void adaptiveLimitShrinksOnSlowCallsAndGrowsBack() throws Exception {
+        CallLimiter limiter = new CallLimiter("test", 10, 0, 50);
+        slowCall(limiter);
+        assertEquals(9, limiter.getLimit());
+        slowCall(limiter);
+        assertEquals(8, limiter.getLimit());
+
+        for (int i = 0; i < 100; i++) {
+            limiter.release(limiter.acquire());
+        }
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    public void callsStartedBeforeADecreaseDoNotShrinkTheLimitAgain() throws Exception {
+        CallLimiter limiter = new CallLimiter("test", 10, 0, 50);
+        long first = limiter.acquire();
+        long second = limiter.acquire();
+        Thread.sleep(60);
+        limiter.release(first);
+        limiter.release(second);
+        assertEquals(9, limiter.getLimit());
+    }
+
+    @Test
+    public void limitersAreRegisteredOnce() {
+        CallLimiter limiter = AutoImplLimits.register(CallLimiterTest.class, "once", 3, 0, 0);
+        assertSame(limiter, AutoImplLimits.register(CallLimiterTest.class, "once", 5, 0, 0));
+        assertSame(limiter, AutoImplLimits.get(CallLimiterTest.class, "once"));
+        assertEquals(3, limiter.getMaxConcurrent());
+        assertTrue(AutoImplLimits.getAll().contains(limiter));
+        assertNull(AutoImplLimits.get(CallLimiterTest.class, "none"));
+    }
+
+    private static void slowCall(CallLimiter limiter) throws InterruptedException {
+        long start = limiter.acquire();
+        Thread.sleep(60);
+        limiter.release(start);
+    }
+}
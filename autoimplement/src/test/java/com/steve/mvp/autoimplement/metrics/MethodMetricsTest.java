@@ -0,0 +1,95 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplement.metrics;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created by Steve Tchatchouang
+ */
+
+public class MethodMetricsTest {
+
+    @Test
+    public void bucketsArePowersOfTwo() {
+        assertEquals(0, LatencyHistogram.getBucket(0));
+        assertEquals(0, LatencyHistogram.getBucket(1));
+        assertEquals(1, LatencyHistogram.getBucket(2));
+        assertEquals(1, LatencyHistogram.getBucket(3));
+        assertEquals(10, LatencyHistogram.getBucket(1024));
+        assertEquals(62, LatencyHistogram.getBucket(Long.MAX_VALUE));
+        assertEquals(3, LatencyHistogram.getUpperBound(1));
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.getUpperBound(62));
+    }
+
+    @Test
+    public void percentilesAreBucketUpperBounds() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentile(50));
+        for (int i = 0; i < 99; i++) {
+            histogram.record(100);
+        }
+        histogram.record(5000);
+        assertEquals(100, histogram.getCount());
+        assertEquals(99, histogram.getCount(LatencyHistogram.getBucket(100)));
+        assertEquals(127, histogram.getPercentile(50));
+        assertEquals(127, histogram.getPercentile(99));
+        assertEquals(8191, histogram.getPercentile(100));
+    }
+
+    @Test
+    public void recordsFromManyThreads() throws Exception {
+        final MethodMetrics metrics = new MethodMetrics("Owner", "method");
+        final int threads = 8;
+        final int calls = 10000;
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            final long nanos = 1L << i;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int call = 0; call < calls; call++) {
+                    metrics.record(nanos);
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(threads * calls, metrics.getCalls());
+        assertEquals(threads * calls, metrics.getLatencies().getCount());
+        assertEquals(calls * ((1L << threads) - 1), metrics.getTotalNanos());
+        for (int i = 0; i < threads; i++) {
+            assertEquals(calls, metrics.getLatencies().getCount(i));
+        }
+        assertTrue(metrics.toString(), metrics.toString().startsWith("Owner.method calls=80000 mean=31ns"));
+    }
+}
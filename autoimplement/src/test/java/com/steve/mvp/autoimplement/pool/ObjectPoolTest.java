@@ -0,0 +1,90 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplement.pool;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created by Steve Tchatchouang
+ */
+
+public class ObjectPoolTest {
+
+    @Test
+    public void releasedInstancesAreReused() {
+        ObjectPool<Object> pool = new ObjectPool<>(2);
+        assertNull(pool.poll());
+        Object instance = new Object();
+        assertTrue(pool.offer(instance));
+        assertEquals(1, pool.size());
+        assertSame(instance, pool.poll());
+        assertNull(pool.poll());
+    }
+
+    @Test
+    public void instancesReleasedToAFullPoolAreDropped() {
+        ObjectPool<Object> pool = new ObjectPool<>(2);
+        assertTrue(pool.offer(new Object()));
+        assertTrue(pool.offer(new Object()));
+        assertFalse(pool.offer(new Object()));
+        assertEquals(2, pool.size());
+    }
+
+    @Test
+    public void instancesAreNeverHandedOutTwice() throws Exception {
+        final ObjectPool<Object> pool = new ObjectPool<>(4);
+        for (int i = 0; i < 4; i++) {
+            pool.offer(new Object());
+        }
+        final Set<Object> held = Collections.newSetFromMap(new ConcurrentHashMap<Object, Boolean>());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                tasks.add(() -> {
+                    for (int call = 0; call < 10000; call++) {
+                        Object instance = pool.poll();
+                        if (instance != null) {
+                            assertTrue(held.add(instance));
+                            held.remove(instance);
+                            assertTrue(pool.offer(instance));
+                        }
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> task : executor.invokeAll(tasks)) {
+                task.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(4, pool.size());
+    }
+}
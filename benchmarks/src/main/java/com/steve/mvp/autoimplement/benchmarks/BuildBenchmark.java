@@ -0,0 +1,68 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplement.benchmarks;
+
+import com.steve.mvp.autoimplement.AutoImplUtils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of AutoImplUtils.build against a plain new of the generated class
+ * Created by Steve Tchatchouang
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BuildBenchmark {
+
+    private final Class[]  types  = {Counter.class};
+    private final Object[] params = {new Counters.Plus()};
+    private final Counter  counter = new Counters.Plus();
+
+    @Benchmark
+    public CounterPresenter autoImplDefault() {
+        return AutoImplUtils.build(CounterPresenter.class, null, null);
+    }
+
+    @Benchmark
+    public CounterPresenter autoImplParameterized() {
+        return AutoImplUtils.build(CounterPresenter.class, types, params);
+    }
+
+    @Benchmark
+    public CounterPresenter newDefault() {
+        return new CounterPresenter_Impl();
+    }
+
+    @Benchmark
+    public CounterPresenter newParameterized() {
+        return new CounterPresenter_Impl(counter);
+    }
+}
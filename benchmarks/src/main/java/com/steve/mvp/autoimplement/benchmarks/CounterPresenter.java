@@ -0,0 +1,39 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplement.benchmarks;
+
+import com.steve.mvp.autoimplement.internal.AutoImplement;
+import com.steve.mvp.autoimplement.internal.ImplementationOf;
+
+/**
+ * Generated delegation under test, see CounterPresenter_Impl
+ * Created by Steve Tchatchouang
+ */
+@AutoImplement
+public abstract class CounterPresenter implements Counter {
+
+    @ImplementationOf(Counter.class)
+    protected Counter counter;
+
+    public CounterPresenter() {
+        this(new Counters.Plus());
+    }
+
+    public CounterPresenter(Counter counter) {
+        this.counter = counter;
+    }
+}
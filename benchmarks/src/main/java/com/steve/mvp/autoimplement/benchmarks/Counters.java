@@ -0,0 +1,89 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplement.benchmarks;
+
+/**
+ * Distinct Counter classes, used to make call sites mono, bi or megamorphic
+ * Created by Steve Tchatchouang
+ */
+
+public final class Counters {
+
+    private Counters() {
+    }
+
+    /**
+     * @param shape : number of distinct classes to cycle through
+     * @return size counters, using shape distinct classes
+     */
+    public static Counter[] create(int shape, int size) {
+        Counter[] counters = new Counter[size];
+        for (int i = 0; i < size; i++) {
+            counters[i] = create(i % shape);
+        }
+        return counters;
+    }
+
+    public static Counter create(int kind) {
+        switch (kind) {
+            case 0:
+                return new Plus();
+            case 1:
+                return new Minus();
+            case 2:
+                return new Times();
+            default:
+                return new Xor();
+        }
+    }
+
+    public static final class Plus implements Counter {
+        private int total;
+
+        @Override
+        public int add(int value) {
+            return total += value;
+        }
+    }
+
+    public static final class Minus implements Counter {
+        private int total;
+
+        @Override
+        public int add(int value) {
+            return total -= value;
+        }
+    }
+
+    public static final class Times implements Counter {
+        private int total = 1;
+
+        @Override
+        public int add(int value) {
+            return total *= value;
+        }
+    }
+
+    public static final class Xor implements Counter {
+        private int total;
+
+        @Override
+        public int add(int value) {
+            return total ^= value;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplement.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per call cost of a generated delegate method against a hand written one and
+ * a direct interface call. shape is the number of delegate classes seen by the
+ * call site: 1 monomorphic, 2 bimorphic, 4 megamorphic.
+ * Each shape runs in its own fork so profiles do not leak between them.
+ * Created by Steve Tchatchouang
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DelegationBenchmark {
+
+    private static final int SIZE = 1024;
+
+    @Param({"1", "2", "4"})
+    public int shape;
+
+    private Counter[]          direct;
+    private CounterPresenter[] generated;
+    private CounterPresenter[] handWritten;
+
+    @Setup
+    public void setup() {
+        direct = Counters.create(shape, SIZE);
+        generated = new CounterPresenter[SIZE];
+        handWritten = new CounterPresenter[SIZE];
+        Counter[] forGenerated = Counters.create(shape, SIZE);
+        Counter[] forHandWritten = Counters.create(shape, SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            generated[i] = new CounterPresenter_Impl(forGenerated[i]);
+            handWritten[i] = new HandWrittenCounterPresenter(forHandWritten[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int direct() {
+        int sum = 0;
+        for (Counter counter : direct) {
+            sum += counter.add(1);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int generated() {
+        int sum = 0;
+        for (CounterPresenter presenter : generated) {
+            sum += presenter.add(1);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int handWritten() {
+        int sum = 0;
+        for (CounterPresenter presenter : handWritten) {
+            sum += presenter.add(1);
+        }
+        return sum;
+    }
+}
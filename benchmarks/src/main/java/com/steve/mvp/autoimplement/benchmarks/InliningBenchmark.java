@@ -0,0 +1,64 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplement.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delegation through a final and a non final generated implementation against a call
+ * on the target itself. Once inlined the three collapse into the same code and score the same.
+ * Show the inlining decisions with
+ * -PjmhArgs="InliningBenchmark -jvmArgsAppend -XX:+UnlockDiagnosticVMOptions -jvmArgsAppend -XX:+PrintInlining"
+ * Created by Steve Tchatchouang
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class InliningBenchmark {
+
+    private final Counters.Plus         target         = new Counters.Plus();
+    private final CounterPresenter      generated      = new CounterPresenter_Impl(new Counters.Plus());
+    private final FinalCounterPresenter finalGenerated = new FinalCounterPresenter_Impl(new Counters.Plus());
+
+    @Benchmark
+    public int target() {
+        return target.add(1);
+    }
+
+    @Benchmark
+    public int generated() {
+        return generated.add(1);
+    }
+
+    @Benchmark
+    public int finalGenerated() {
+        return finalGenerated.add(1);
+    }
+}
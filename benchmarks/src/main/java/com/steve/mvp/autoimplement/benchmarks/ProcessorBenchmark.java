@@ -0,0 +1,347 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplement.benchmarks;
+
+import com.steve.mvp.autoimplementprocessor.AutoImplRegistryProcessor;
+import com.steve.mvp.autoimplementprocessor.AutoImplementProcessor;
+import com.steve.mvp.autoimplementprocessor.ImplementationOfProcessor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import javax.annotation.processing.Completion;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+/**
+ * Runs the processors in process through javax.tools on synthetic corpora,
+ * recording processing time, memory and generated code size per corpus size
+ * Created by Steve Tchatchouang
+ */
+
+public final class ProcessorBenchmark {
+
+    private static final List<Integer> DEFAULT_SIZES = Arrays.asList(10, 100, 1000, 10000);
+
+    private ProcessorBenchmark() {
+    }
+
+    /**
+     * Options : --depth=N (interfaces above each diamond, 8), --fields=N (@ImplementationOf per class, 4),
+     * --iterations=N (measured runs, 3), --warmup=N (unmeasured runs, 1), --proc-only (skip code generation),
+     * --budget-us=N (fails when processing takes more than N microseconds per class).
+     * Other arguments are the corpus sizes, 10 100 1000 10000 by default
+     */
+    public static void main(String[] args) {
+        int depth = 8;
+        int fields = 4;
+        int iterations = 3;
+        int warmUp = 1;
+        boolean procOnly = false;
+        long budget = 0;
+        List<Integer> sizes = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--depth=")) {
+                depth = Integer.parseInt(value(arg));
+            } else if (arg.startsWith("--fields=")) {
+                fields = Integer.parseInt(value(arg));
+            } else if (arg.startsWith("--iterations=")) {
+                iterations = Integer.parseInt(value(arg));
+            } else if (arg.startsWith("--warmup=")) {
+                warmUp = Integer.parseInt(value(arg));
+            } else if (arg.equals("--proc-only")) {
+                procOnly = true;
+            } else if (arg.startsWith("--budget-us=")) {
+                budget = Long.parseLong(value(arg));
+            } else {
+                sizes.add(Integer.parseInt(arg));
+            }
+        }
+        if (sizes.isEmpty()) {
+            sizes = DEFAULT_SIZES;
+        }
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("No system java compiler, run on a JDK");
+        }
+
+        System.out.printf(Locale.ROOT, "depth=%d fields=%d iterations=%d warmup=%d%s%n",
+                depth, fields, iterations, warmUp, procOnly ? " proc-only" : "");
+        System.out.printf(Locale.ROOT, "%8s %8s %10s %10s %12s %12s %8s %12s %12s%n",
+                "classes", "ifaces", "total ms", "process ms", "alloc MB", "peak MB",
+                "files", "source KB", "class KB");
+        boolean overBudget = false;
+        for (int size : sizes) {
+            SyntheticCorpus corpus = new SyntheticCorpus(size, depth, fields);
+            for (int i = 0; i < warmUp; i++) {
+                run(compiler, corpus, procOnly);
+            }
+            Result best = null;
+            for (int i = 0; i < iterations; i++) {
+                Result result = run(compiler, corpus, procOnly);
+                if (best == null || result.processNanos < best.processNanos) {
+                    best = result;
+                }
+            }
+            if (best == null) {
+                continue;
+            }
+            System.out.printf(Locale.ROOT, "%8d %8d %10.1f %10.1f %12.1f %12.1f %8d %12.1f %12.1f%n",
+                    size, corpus.interfaces(), best.totalNanos / 1e6, best.processNanos / 1e6,
+                    best.allocated / 1048576.0, best.peak / 1048576.0,
+                    best.sourceFiles, best.sourceBytes / 1024.0, best.classBytes / 1024.0);
+            if (budget > 0 && best.processNanos / 1000 / size > budget) {
+                System.out.printf(Locale.ROOT, "%d classes: %d us per class, over the %d us budget%n",
+                        size, best.processNanos / 1000 / size, budget);
+                overBudget = true;
+            }
+        }
+        if (overBudget) {
+            System.exit(1);
+        }
+    }
+
+    private static String value(String arg) {
+        return arg.substring(arg.indexOf('=') + 1);
+    }
+
+    static Result run(JavaCompiler compiler, SyntheticCorpus corpus, boolean procOnly) {
+        List<JavaFileObject> sources = corpus.sources();
+        Result result = new Result();
+        //same order as META-INF/services
+        List<TimedProcessor> processors = Arrays.asList(
+                new TimedProcessor(new ImplementationOfProcessor()),
+                new TimedProcessor(new AutoImplRegistryProcessor()),
+                new TimedProcessor(new AutoImplementProcessor()));
+        List<String> options = new ArrayList<>(Arrays.asList(
+                "-classpath", System.getProperty("java.class.path"), "-Xlint:none", "-nowarn"));
+        if (procOnly) {
+            options.add("-proc:only");
+        }
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        StandardJavaFileManager standard = compiler.getStandardFileManager(diagnostics, Locale.ROOT, StandardCharsets.UTF_8);
+        MemoryFileManager fileManager = new MemoryFileManager(standard, result);
+
+        System.gc();
+        long before = usedHeap();
+        resetPeakHeap();
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, options, null, sources);
+        task.setProcessors(new ArrayList<Processor>(processors));
+        boolean success = task.call();
+        result.totalNanos = System.nanoTime() - start;
+        result.allocated = allocatedBytes() - allocatedBefore;
+        result.peak = peakHeap() - before;
+
+        if (!success) {
+            for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+                if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                    System.err.println(diagnostic);
+                }
+            }
+            throw new IllegalStateException("Synthetic corpus does not compile");
+        }
+        for (TimedProcessor processor : processors) {
+            result.processNanos += processor.nanos;
+        }
+        return result;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /**
+     * Sum of the heap pools peaks, an upper bound as pools do not peak at the same time
+     */
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    /**
+     * Bytes allocated by the compiling thread, javac runs the processors on the calling thread
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    static final class Result {
+        long totalNanos;
+        long processNanos;
+        long allocated;
+        long peak;
+        int sourceFiles;
+        long sourceBytes;
+        long classBytes;
+    }
+
+    /**
+     * Delegating processor, timing init and process
+     */
+    private static final class TimedProcessor implements Processor {
+        private final Processor delegate;
+        long nanos;
+
+        TimedProcessor(Processor delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Set<String> getSupportedOptions() {
+            return delegate.getSupportedOptions();
+        }
+
+        @Override
+        public Set<String> getSupportedAnnotationTypes() {
+            return delegate.getSupportedAnnotationTypes();
+        }
+
+        @Override
+        public SourceVersion getSupportedSourceVersion() {
+            return delegate.getSupportedSourceVersion();
+        }
+
+        @Override
+        public void init(ProcessingEnvironment processingEnv) {
+            long start = System.nanoTime();
+            delegate.init(processingEnv);
+            nanos += System.nanoTime() - start;
+        }
+
+        @Override
+        public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+            long start = System.nanoTime();
+            boolean claimed = delegate.process(annotations, roundEnv);
+            nanos += System.nanoTime() - start;
+            return claimed;
+        }
+
+        @Override
+        public Iterable<? extends Completion> getCompletions(Element element, AnnotationMirror annotation,
+                                                             ExecutableElement member, String userText) {
+            return delegate.getCompletions(element, annotation, member, userText);
+        }
+    }
+
+    /**
+     * Keeps generated sources in memory, for the next rounds, and only counts class and resource bytes
+     */
+    private static final class MemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+        private final Result result;
+
+        MemoryFileManager(StandardJavaFileManager fileManager, Result result) {
+            super(fileManager);
+            this.result = result;
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(Location location, String className,
+                                                   JavaFileObject.Kind kind, FileObject sibling) {
+            URI uri = URI.create("mem:///" + className.replace('.', '/') + kind.extension);
+            return new MemoryOutput(uri, kind, kind == JavaFileObject.Kind.SOURCE);
+        }
+
+        @Override
+        public FileObject getFileForOutput(Location location, String packageName,
+                                           String relativeName, FileObject sibling) {
+            URI uri = URI.create("mem:///" + packageName.replace('.', '/') + "/" + relativeName);
+            return new MemoryOutput(uri, JavaFileObject.Kind.OTHER, false);
+        }
+
+        @Override
+        public boolean isSameFile(FileObject a, FileObject b) {
+            return a.toUri().equals(b.toUri());
+        }
+
+        private final class MemoryOutput extends SimpleJavaFileObject {
+            private final boolean source;
+            private byte[] content = new byte[0];
+
+            MemoryOutput(URI uri, Kind kind, boolean source) {
+                super(uri, kind);
+                this.source = source;
+            }
+
+            @Override
+            public OutputStream openOutputStream() {
+                return new ByteArrayOutputStream() {
+                    @Override
+                    public void close() {
+                        if (source) {
+                            content = toByteArray();
+                            result.sourceFiles++;
+                            result.sourceBytes += content.length;
+                        } else {
+                            result.classBytes += size();
+                        }
+                    }
+                };
+            }
+
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return new String(content, StandardCharsets.UTF_8);
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplement.benchmarks;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+
+/**
+ * In memory sources of @AutoImplement classes, delegating to deep and diamond interface hierarchies
+ * Created by Steve Tchatchouang
+ */
+
+final class SyntheticCorpus {
+
+    private static final String API = "corpus.api";
+    //@AutoImplement classes per package
+    private static final int PACKAGE_SIZE = 100;
+
+    private final int classes;
+    private final int depth;
+    private final int fields;
+    private final int families;
+
+    /**
+     * @param classes : number of @AutoImplement classes
+     * @param depth   : interfaces chained below each diamond
+     * @param fields  : @ImplementationOf fields per class, each on a distinct family
+     */
+    SyntheticCorpus(int classes, int depth, int fields) {
+        this.classes = classes;
+        this.depth = depth;
+        this.fields = fields;
+        //families are shared between classes, as real presenters share their views
+        this.families = Math.max(fields, classes / 10);
+    }
+
+    int interfaces() {
+        return families * (4 + depth);
+    }
+
+    List<JavaFileObject> sources() {
+        List<JavaFileObject> sources = new ArrayList<>(interfaces() + classes);
+        for (int f = 0; f < families; f++) {
+            addFamily(sources, f);
+        }
+        for (int c = 0; c < classes; c++) {
+            sources.add(presenter(c));
+        }
+        return sources;
+    }
+
+    /**
+     * Base, Left and Right redeclaring a Base method, Diamond extending both, then depth interfaces on top
+     */
+    private void addFamily(List<JavaFileObject> sources, int f) {
+        sources.add(source(API, "Base" + f, "public interface Base" + f + " {\n"
+                + "    String base" + f + "(String value);\n"
+                + "}\n"));
+        sources.add(source(API, "Left" + f, "public interface Left" + f + " extends Base" + f + " {\n"
+                + "    String base" + f + "(String value);\n"
+                + "    int left" + f + "();\n"
+                + "}\n"));
+        sources.add(source(API, "Right" + f, "public interface Right" + f + " extends Base" + f + " {\n"
+                + "    String base" + f + "(String value);\n"
+                + "    long right" + f + "(long value) throws java.io.IOException;\n"
+                + "}\n"));
+        sources.add(source(API, "Diamond" + f, "public interface Diamond" + f
+                + " extends Left" + f + ", Right" + f + " {\n"
+                + "    <T extends Comparable<T>> java.util.List<T> diamond" + f + "(T[] values);\n"
+                + "}\n"));
+        String parent = "Diamond" + f;
+        for (int d = 0; d < depth; d++) {
+            String name = deep(f, d);
+            sources.add(source(API, name, "public interface " + name + " extends " + parent + " {\n"
+                    + "    void " + name.toLowerCase() + "(int a, double b, Object... rest);\n"
+                    + "}\n"));
+            parent = name;
+        }
+    }
+
+    private JavaFileObject presenter(int c) {
+        String name = "Presenter" + c;
+        StringBuilder implemented = new StringBuilder();
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < fields; i++) {
+            String type = top((c + i) % families);
+            implemented.append(i == 0 ? " implements " : ", ").append(type);
+            body.append("    @ImplementationOf(").append(type).append(".class)\n")
+                    .append("    protected ").append(type).append(" field").append(i).append(";\n\n");
+        }
+        return source("corpus.p" + c / PACKAGE_SIZE, name,
+                "import " + API + ".*;\n"
+                        + "import com.steve.mvp.autoimplement.internal.AutoImplement;\n"
+                        + "import com.steve.mvp.autoimplement.internal.ImplementationOf;\n\n"
+                        + "@AutoImplement\n"
+                        + "public abstract class " + name + implemented + " {\n\n"
+                        + body
+                        + "}\n");
+    }
+
+    private String top(int f) {
+        return depth == 0 ? "Diamond" + f : deep(f, depth - 1);
+    }
+
+    private static String deep(int f, int d) {
+        return "Deep" + f + "_" + d;
+    }
+
+    private static JavaFileObject source(String pkg, String name, String body) {
+        final String code = "package " + pkg + ";\n\n" + body;
+        URI uri = URI.create("string:///" + pkg.replace('.', '/') + "/" + name + JavaFileObject.Kind.SOURCE.extension);
+        return new SimpleJavaFileObject(uri, JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+}
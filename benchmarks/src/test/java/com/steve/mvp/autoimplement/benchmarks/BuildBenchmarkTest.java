@@ -0,0 +1,38 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplement.benchmarks;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created by Steve Tchatchouang
+ */
+
+public class BuildBenchmarkTest {
+
+    @Test
+    public void everyPathBuildsTheGeneratedClass() {
+        BuildBenchmark benchmark = new BuildBenchmark();
+        assertEquals(CounterPresenter_Impl.class, benchmark.autoImplDefault().getClass());
+        assertEquals(CounterPresenter_Impl.class, benchmark.autoImplParameterized().getClass());
+        assertEquals(CounterPresenter_Impl.class, benchmark.newDefault().getClass());
+        assertEquals(CounterPresenter_Impl.class, benchmark.newParameterized().getClass());
+        assertEquals(1, benchmark.autoImplParameterized().add(1));
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplement.benchmarks;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * The three variants must do the same work for their scores to compare
+ * Created by Steve Tchatchouang
+ */
+
+public class DelegationBenchmarkTest {
+
+    @Test
+    public void variantsComputeTheSameSums() {
+        for (int shape : new int[]{1, 2, 4}) {
+            DelegationBenchmark benchmark = new DelegationBenchmark();
+            benchmark.shape = shape;
+            benchmark.setup();
+            for (int i = 0; i < 3; i++) {
+                int direct = benchmark.direct();
+                assertEquals("shape " + shape, direct, benchmark.generated());
+                assertEquals("shape " + shape, direct, benchmark.handWritten());
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplement.benchmarks;
+
+import org.junit.Test;
+
+import java.lang.reflect.Modifier;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created by Steve Tchatchouang
+ */
+
+public class InliningBenchmarkTest {
+
+    @Test
+    public void variantsComputeTheSameSums() {
+        InliningBenchmark benchmark = new InliningBenchmark();
+        for (int i = 1; i <= 3; i++) {
+            assertEquals(i, benchmark.target());
+            assertEquals(i, benchmark.generated());
+            assertEquals(i, benchmark.finalGenerated());
+        }
+    }
+
+    @Test
+    public void onlyTheFinalVariantIsFinal() {
+        assertTrue(Modifier.isFinal(FinalCounterPresenter_Impl.class.getModifiers()));
+        assertFalse(Modifier.isFinal(CounterPresenter_Impl.class.getModifiers()));
+    }
+}
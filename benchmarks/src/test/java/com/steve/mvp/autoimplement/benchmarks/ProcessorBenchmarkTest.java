@@ -0,0 +1,72 @@
+/*
+ * Copyright 2018 Steve Tchatchouang
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.steve.mvp.autoimplement.benchmarks;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created by Steve Tchatchouang
+ */
+
+public class ProcessorBenchmarkTest {
+
+    private static JavaCompiler compiler;
+
+    @BeforeClass
+    public static void getCompiler() {
+        compiler = ToolProvider.getSystemJavaCompiler();
+        assertNotNull("tests run on a JDK", compiler);
+    }
+
+    @Test
+    public void corpusHasTheRequestedShape() {
+        SyntheticCorpus corpus = new SyntheticCorpus(100, 3, 2);
+        //10 families of Base, Left, Right, Diamond and 3 deep interfaces
+        assertEquals(70, corpus.interfaces());
+        assertEquals(170, corpus.sources().size());
+        //fields need distinct families
+        assertEquals(5 * 4, new SyntheticCorpus(10, 0, 5).interfaces());
+    }
+
+    @Test
+    public void smallCorpusCompilesAndIsMeasured() {
+        ProcessorBenchmark.Result result = ProcessorBenchmark.run(compiler, new SyntheticCorpus(10, 2, 2), false);
+        //one implementation per class, then the registry
+        assertTrue(String.valueOf(result.sourceFiles), result.sourceFiles > 10);
+        assertTrue(result.sourceBytes > 0);
+        assertTrue(result.classBytes > 0);
+        assertTrue(result.processNanos > 0);
+        assertTrue(result.totalNanos >= result.processNanos);
+    }
+
+    @Test
+    public void procOnlyDoesNotCompileTheCorpus() {
+        SyntheticCorpus corpus = new SyntheticCorpus(10, 2, 2);
+        ProcessorBenchmark.Result compiled = ProcessorBenchmark.run(compiler, corpus, false);
+        ProcessorBenchmark.Result processed = ProcessorBenchmark.run(compiler, corpus, true);
+        assertEquals(compiled.sourceFiles, processed.sourceFiles);
+        assertEquals(compiled.sourceBytes, processed.sourceBytes);
+        //only resources are written
+        assertTrue(processed.classBytes < compiled.classBytes);
+    }
+}